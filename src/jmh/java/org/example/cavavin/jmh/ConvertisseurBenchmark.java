@@ -0,0 +1,61 @@
+package org.example.cavavin.jmh;
+
+import org.bson.Document;
+import org.example.cavavin.bo.Bouteille;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût unitaire du MappingMongoConverter pour une Bouteille : lecture (Document -> entité) par BouteilleReadConverter
+ * ou par le mapping réflexif (proxies paresseux compris), et écriture (entité -> Document, références converties en IDs).
+ * Ex: ./gradlew jmh -PjmhIncludes=ConvertisseurBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConvertisseurBenchmark {
+
+    private MappingMongoConverter convertisseur;
+    private MappingMongoConverter convertisseurReflexif;
+    private Bouteille bouteille;
+    private Document document;
+
+    @Setup
+    public void preparer() {
+        convertisseur = JeuDeDonnees.convertisseur();
+        convertisseurReflexif = JeuDeDonnees.convertisseurReflexif();
+        bouteille = JeuDeDonnees.bouteille(42);
+        document = JeuDeDonnees.documents(convertisseur, 1).get(0);
+    }
+
+    @Benchmark
+    public Bouteille lireBouteille() {
+        return convertisseur.read(Bouteille.class, document);
+    }
+
+    @Benchmark
+    public Bouteille lireBouteilleReflexif() {
+        return convertisseurReflexif.read(Bouteille.class, document);
+    }
+
+    @Benchmark
+    public Document ecrireBouteille() {
+        Document cible = new Document();
+        convertisseur.write(bouteille, cible);
+        return cible;
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.cavavin.jmh;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.cavavin.bo.Avis;
+import org.example.cavavin.bo.AvisResume;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.Couleur;
+import org.example.cavavin.bo.Region;
+import org.example.cavavin.dal.cache.RegionCache;
+import org.example.cavavin.dal.convert.AvisReadConverter;
+import org.example.cavavin.dal.convert.BouteilleReadConverter;
+import org.example.cavavin.dal.convert.BouteilleResumeReadConverter;
+import org.example.cavavin.dal.convert.RegionReadConverter;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Données et convertisseur communs aux benchmarks JMH.
+ * Les bouteilles sont déterministes (même contenu à chaque exécution) et proches de celles de l'application :
+ * une région référencée, une couleur, 20 références d'avis et les derniers avis dénormalisés.
+ */
+final class JeuDeDonnees {
+
+    static final int NB_AVIS_PAR_BOUTEILLE = 20;
+
+    private static final String[] COULEURS = {"Rouge", "Blanc", "Rosé"};
+
+    private JeuDeDonnees() {
+    }
+
+    /**
+     * Convertisseur configuré comme celui de l'application (convertisseurs de lecture de MongoConversionsConfig),
+     * sans connexion MongoDB : les régions sont servies par un RegionCache pré-rempli, les avis jamais chargés.
+     */
+    static MappingMongoConverter convertisseur() {
+        RegionCache regionCache = new RegionCache(null, new SimpleMeterRegistry(), 1000, true);
+        for (int i = 0; i < 20; i++) {
+            regionCache.mettreAJour(bouteille(i).getRegion());
+        }
+        return convertisseur(new MongoCustomConversions(List.of(
+                new BouteilleReadConverter(() -> regionCache, () -> {
+                    throw new IllegalStateException("Aucune lecture d'avis pendant les benchmarks");
+                }),
+                new RegionReadConverter(),
+                new AvisReadConverter(),
+                new BouteilleResumeReadConverter())));
+    }
+
+    /**
+     * Convertisseur sans convertisseur de lecture : mapping réflexif de Spring Data (références paresseuses
+     * (@DocumentReference) en proxies jamais résolus), pour comparaison.
+     */
+    static MappingMongoConverter convertisseurReflexif() {
+        return convertisseur(new MongoCustomConversions(List.of()));
+    }
+
+    private static MappingMongoConverter convertisseur(MongoCustomConversions conversions) {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        MappingMongoConverter convertisseur = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        convertisseur.setCustomConversions(conversions);
+        convertisseur.afterPropertiesSet();
+        return convertisseur;
+    }
+
+    /**
+     * Documents tels que retournés par la requête des résumés (seuls les champs projetés).
+     */
+    static List<Document> documentsResume(MappingMongoConverter convertisseur, int taille) {
+        List<Document> documents = new ArrayList<>(taille);
+        for (Document complet : documents(convertisseur, taille)) {
+            Document projete = new Document("_id", complet.get("_id"));
+            BouteilleResumeReadConverter.CHAMPS.forEach(champ -> projete.put(champ, complet.get(champ)));
+            documents.add(projete);
+        }
+        return documents;
+    }
+
+    static Bouteille bouteille(int i) {
+        Region region = new Region("Région " + (i % 20));
+        region.setId(new ObjectId(i % 20, 0).toHexString());
+
+        Bouteille bouteille = new Bouteille("Bouteille " + i, 1990 + i % 35);
+        bouteille.setId(new ObjectId(i, 1).toHexString());
+        bouteille.setRegion(region);
+        bouteille.setCouleur(new Couleur(COULEURS[i % COULEURS.length]));
+
+        List<Avis> avis = new ArrayList<>();
+        List<AvisResume> derniersAvis = new ArrayList<>();
+        for (int j = 0; j < NB_AVIS_PAR_BOUTEILLE; j++) {
+            Avis unAvis = new Avis("Avis " + j + " sur la bouteille " + i, bouteille);
+            unAvis.setId(new ObjectId(i, 2 + j).toHexString());
+            avis.add(unAvis);
+            if (j >= NB_AVIS_PAR_BOUTEILLE - Bouteille.NB_DERNIERS_AVIS) {
+                derniersAvis.add(AvisResume.de(unAvis));
+            }
+        }
+        bouteille.setAvis(avis);
+        bouteille.setNbAvis(avis.size());
+        bouteille.setDerniersAvis(derniersAvis);
+        return bouteille;
+    }
+
+    /**
+     * Documents BSON tels que stockés dans la collection 'bouteilles'.
+     */
+    static List<Document> documents(MappingMongoConverter convertisseur, int taille) {
+        List<Document> documents = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) {
+            Document document = new Document();
+            convertisseur.write(bouteille(i), document);
+            documents.add(document);
+        }
+        return documents;
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.cavavin.jmh;
+
+import org.bson.Document;
+import org.example.cavavin.bo.BouteilleResume;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chemin de findAllResume() : lecture des documents projetés en BouteilleResume par BouteilleResumeReadConverter,
+ * comparée au mapping réflexif de Spring Data (constructeur de la projection de classe, sans convertisseur).
+ * Ex: ./gradlew jmh -PjmhIncludes=ResumeMappingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResumeMappingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int taille;
+
+    private MappingMongoConverter convertisseur;
+    private MappingMongoConverter convertisseurReflexif;
+    private List<Document> documents;
+
+    @Setup
+    public void preparer() {
+        convertisseur = JeuDeDonnees.convertisseur();
+        convertisseurReflexif = JeuDeDonnees.convertisseurReflexif();
+        documents = JeuDeDonnees.documentsResume(convertisseur, taille);
+    }
+
+    @Benchmark
+    public List<BouteilleResume> lireResumes() {
+        return lire(convertisseur);
+    }
+
+    @Benchmark
+    public List<BouteilleResume> lireResumesReflexif() {
+        return lire(convertisseurReflexif);
+    }
+
+    private List<BouteilleResume> lire(MappingMongoConverter lecteur) {
+        List<BouteilleResume> resumes = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            resumes.add(lecteur.read(BouteilleResume.class, document));
+        }
+        return resumes;
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.cavavin.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.example.cavavin.bo.BouteilleResume;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation Jackson des réponses de liste : /resume (BouteilleResume) et pages de BouteilleAvecRegion.
+ * La sortie est jetée : seul le coût de sérialisation (temps et allocations) est mesuré, pas celui des buffers.
+ * Ex: ./gradlew jmh -PjmhIncludes=SerialisationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerialisationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int taille;
+
+    // Même configuration par défaut que l'ObjectMapper de Spring Boot
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<BouteilleResume> resumes;
+    private List<BouteilleAvecRegion> bouteilles;
+
+    @Setup
+    public void preparer() {
+        MappingMongoConverter convertisseur = JeuDeDonnees.convertisseur();
+        var documents = JeuDeDonnees.documents(convertisseur, taille);
+
+        resumes = new ArrayList<>(taille);
+        bouteilles = new ArrayList<>(taille);
+        for (var document : documents) {
+            resumes.add(convertisseur.read(BouteilleResume.class, document));
+            Bouteille source = convertisseur.read(Bouteille.class, document);
+            BouteilleAvecRegion bouteille = new BouteilleAvecRegion();
+            bouteille.setId(source.getId());
+            bouteille.setNom(source.getNom());
+            bouteille.setMillesime(source.getMillesime());
+            bouteille.setCouleur(source.getCouleur());
+            bouteille.setRegion(JeuDeDonnees.bouteille(0).getRegion());
+            bouteille.setNbAvis(source.getNbAvis());
+            bouteille.setDerniersAvis(source.getDerniersAvis());
+            bouteilles.add(bouteille);
+        }
+    }
+
+    @Benchmark
+    public void serialiserResumes() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), resumes);
+    }
+
+    @Benchmark
+    public void serialiserBouteillesAvecRegion() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), bouteilles);
+    }
+}
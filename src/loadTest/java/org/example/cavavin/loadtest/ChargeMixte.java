@@ -0,0 +1,329 @@
+package org.example.cavavin.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.types.ObjectId;
+import org.example.cavavin.CavavinApplication;
+import org.example.cavavin.bo.Avis;
+import org.example.cavavin.bo.AvisResume;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.Couleur;
+import org.example.cavavin.bo.Region;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Test de charge de bout en bout : démarre CavavinApplication (pile servlet) sur un MongoDB local
+ * ou, à défaut, sur un serveur embarqué en mémoire (mongo-java-server), alimente un jeu de données
+ * reproductible puis envoie un trafic mixte lecture/écriture avec {@code concurrency} clients en boucle fermée.
+ * Le rapport (latences p50/p99/p999 et débit par route) est affiché et écrit en JSON pour être comparé
+ * d'une version à l'autre.
+ *
+ * Propriétés système (toutes optionnelles) :
+ * cavavin.loadtest.mongo-uri (défaut : serveur embarqué ; latences non représentatives de mongod),
+ * cavavin.loadtest.database (défaut cavavin_loadtest, vidée puis alimentée),
+ * cavavin.loadtest.bouteilles (10000), cavavin.loadtest.avis-par-bouteille (5), cavavin.loadtest.regions (50),
+ * cavavin.loadtest.concurrency (64), cavavin.loadtest.warmup (10 s), cavavin.loadtest.duration (60 s),
+ * cavavin.loadtest.mix (poids par route, défaut "liste:1,page:10,resume:1,detail:60,avis:28"),
+ * cavavin.loadtest.seed (42), cavavin.loadtest.rapport (chemin du rapport JSON).
+ *
+ * Les clients étant en boucle fermée, un ralentissement du serveur réduit aussi le débit offert :
+ * les percentiles élevés sont donc une borne basse (omission coordonnée).
+ */
+public class ChargeMixte {
+
+    private static final int NB_BOUTEILLES = Integer.getInteger("cavavin.loadtest.bouteilles", 10_000);
+    private static final int AVIS_PAR_BOUTEILLE = Integer.getInteger("cavavin.loadtest.avis-par-bouteille", 5);
+    private static final int NB_REGIONS = Integer.getInteger("cavavin.loadtest.regions", 50);
+    private static final int CONCURRENCY = Integer.getInteger("cavavin.loadtest.concurrency", 64);
+    private static final int WARMUP_SECONDES = Integer.getInteger("cavavin.loadtest.warmup", 10);
+    private static final int DUREE_SECONDES = Integer.getInteger("cavavin.loadtest.duration", 60);
+    private static final long SEED = Long.getLong("cavavin.loadtest.seed", 42L);
+    private static final String MIX = System.getProperty("cavavin.loadtest.mix", "liste:1,page:10,resume:1,detail:60,avis:28");
+    private static final String RAPPORT = System.getProperty("cavavin.loadtest.rapport", "build/reports/loadtest/rapport.json");
+
+    // Latence maximale enregistrable (µs) : au-delà, la valeur est écrêtée
+    private static final long LATENCE_MAX_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    public static void main(String[] args) throws Exception {
+        String mongoUri = System.getProperty("cavavin.loadtest.mongo-uri");
+        MongoServer serveurEmbarque = null;
+        if (mongoUri == null) {
+            serveurEmbarque = new MongoServer(new MemoryBackend());
+            InetSocketAddress adresse = serveurEmbarque.bind();
+            mongoUri = "mongodb://" + adresse.getHostString() + ":" + adresse.getPort();
+        }
+
+        SpringApplication application = new SpringApplication(CavavinApplication.class);
+        try (ConfigurableApplicationContext contexte = application.run(arguments(mongoUri))) {
+            int port = ((WebServerApplicationContext) contexte).getWebServer().getPort();
+            List<String> ids = alimenter(contexte.getBean(MongoTemplate.class));
+            List<Route> routes = routes("http://localhost:" + port + "/api/bouteilles", ids);
+
+            solliciter(routes, WARMUP_SECONDES);
+            routes.forEach(Route::reinitialiser);
+            solliciter(routes, DUREE_SECONDES);
+
+            Map<String, Object> rapport = rapport(routes, serveurEmbarque != null);
+            afficher(routes);
+            File fichier = new File(RAPPORT);
+            fichier.getAbsoluteFile().getParentFile().mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(fichier, rapport);
+            System.out.println("Rapport : " + fichier.getAbsolutePath());
+        } finally {
+            if (serveurEmbarque != null) {
+                serveurEmbarque.shutdownNow();
+            }
+        }
+    }
+
+    // Passés comme arguments de ligne de commande pour primer sur application.yml (logs DEBUG de MongoTemplate)
+    private static String[] arguments(String mongoUri) {
+        Map<String, Object> proprietes = new HashMap<>();
+        proprietes.put("server.port", 0);
+        proprietes.put("logging.level.root", "WARN");
+        proprietes.put("logging.level.org.springframework.data.mongodb.core.MongoTemplate", "WARN");
+        proprietes.put("spring.data.mongodb.uri", mongoUri);
+        proprietes.put("spring.data.mongodb.database", System.getProperty("cavavin.loadtest.database", "cavavin_loadtest"));
+        return proprietes.entrySet().stream()
+                .map(propriete -> "--" + propriete.getKey() + "=" + propriete.getValue())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Jeu de données reproductible (graine fixe) : la base est vidée puis alimentée à chaque exécution.
+     * Les avis sont écrits comme le ferait BouteilleService (références, compteur et derniers avis).
+     * @return les IDs des bouteilles, cibles des routes /{id}.
+     */
+    private static List<String> alimenter(MongoTemplate mongoTemplate) {
+        mongoTemplate.remove(new Query(), Avis.class);
+        mongoTemplate.remove(new Query(), Bouteille.class);
+        mongoTemplate.remove(new Query(), Region.class);
+
+        Random aleatoire = new Random(SEED);
+        String[] couleurs = {"Rouge", "Blanc", "Rosé"};
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < NB_REGIONS; i++) {
+            regions.add(new Region("Région " + i));
+        }
+        regions = new ArrayList<>(mongoTemplate.insertAll(regions));
+
+        List<String> ids = new ArrayList<>(NB_BOUTEILLES);
+        List<Bouteille> lotBouteilles = new ArrayList<>();
+        List<Avis> lotAvis = new ArrayList<>();
+        for (int i = 0; i < NB_BOUTEILLES; i++) {
+            Bouteille bouteille = new Bouteille("Bouteille " + i, 1950 + aleatoire.nextInt(75));
+            bouteille.setId(new ObjectId().toHexString());
+            bouteille.setRegion(regions.get(aleatoire.nextInt(regions.size())));
+            bouteille.setCouleur(new Couleur(couleurs[aleatoire.nextInt(couleurs.length)]));
+
+            List<Avis> avis = new ArrayList<>();
+            for (int j = 0; j < AVIS_PAR_BOUTEILLE; j++) {
+                Avis unAvis = new Avis("Avis " + j + " : note " + aleatoire.nextInt(20), bouteille);
+                unAvis.setId(new ObjectId().toHexString());
+                avis.add(unAvis);
+            }
+            bouteille.setAvis(avis);
+            bouteille.setNbAvis(avis.size());
+            bouteille.setDerniersAvis(avis.subList(Math.max(0, avis.size() - Bouteille.NB_DERNIERS_AVIS), avis.size())
+                    .stream().map(AvisResume::de).toList());
+
+            ids.add(bouteille.getId());
+            lotBouteilles.add(bouteille);
+            lotAvis.addAll(avis);
+            if (lotBouteilles.size() == 1000) {
+                mongoTemplate.insertAll(lotBouteilles);
+                mongoTemplate.insertAll(lotAvis);
+                lotBouteilles.clear();
+                lotAvis.clear();
+            }
+        }
+        mongoTemplate.insertAll(lotBouteilles);
+        mongoTemplate.insertAll(lotAvis);
+        return ids;
+    }
+
+    private static List<Route> routes(String base, List<String> ids) {
+        Map<String, Integer> poids = new LinkedHashMap<>();
+        for (String entree : MIX.split(",")) {
+            String[] cleValeur = entree.trim().split(":");
+            poids.put(cleValeur[0], Integer.parseInt(cleValeur[1]));
+        }
+
+        List<Route> routes = new ArrayList<>();
+        poids.forEach((nom, poidsRoute) -> {
+            if (poidsRoute <= 0) {
+                return;
+            }
+            Route route = switch (nom) {
+                case "liste" -> new Route(nom, "GET /api/bouteilles", poidsRoute,
+                        () -> HttpRequest.newBuilder(URI.create(base)).GET());
+                case "page" -> new Route(nom, "GET /api/bouteilles?limit=50", poidsRoute,
+                        () -> HttpRequest.newBuilder(URI.create(base + "?limit=50")).GET());
+                case "resume" -> new Route(nom, "GET /api/bouteilles/resume", poidsRoute,
+                        () -> HttpRequest.newBuilder(URI.create(base + "/resume")).GET());
+                case "detail" -> new Route(nom, "GET /api/bouteilles/{id}", poidsRoute,
+                        () -> HttpRequest.newBuilder(URI.create(base + "/" + auHasard(ids))).GET());
+                case "avis" -> new Route(nom, "POST /api/bouteilles/{id}/avis", poidsRoute,
+                        () -> HttpRequest.newBuilder(URI.create(base + "/" + auHasard(ids) + "/avis"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString("{\"commentaire\":\"Avis de charge\"}")));
+                default -> throw new IllegalArgumentException("Route inconnue dans cavavin.loadtest.mix : " + nom);
+            };
+            routes.add(route);
+        });
+        return routes;
+    }
+
+    private static String auHasard(List<String> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static void solliciter(List<Route> routes, int dureeSecondes) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        int poidsTotal = routes.stream().mapToInt(route -> route.poids).sum();
+        long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(dureeSecondes);
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        for (int c = 0; c < CONCURRENCY; c++) {
+            clients.submit(() -> {
+                while (System.nanoTime() < fin) {
+                    Route route = choisir(routes, ThreadLocalRandom.current().nextInt(poidsTotal));
+                    HttpRequest requete = route.requete.get().timeout(Duration.ofSeconds(60)).build();
+                    long debut = System.nanoTime();
+                    boolean erreur;
+                    try {
+                        erreur = client.send(requete, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+                    } catch (Exception e) {
+                        erreur = true;
+                    }
+                    route.enregistrer(System.nanoTime() - debut, erreur);
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(dureeSecondes + 120L, TimeUnit.SECONDS);
+    }
+
+    private static Route choisir(List<Route> routes, int tirage) {
+        for (Route route : routes) {
+            tirage -= route.poids;
+            if (tirage < 0) {
+                return route;
+            }
+        }
+        return routes.get(routes.size() - 1);
+    }
+
+    private static Map<String, Object> rapport(List<Route> routes, boolean serveurEmbarque) {
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("mongo", serveurEmbarque ? "embarque (mongo-java-server)" : "mongod");
+        configuration.put("bouteilles", NB_BOUTEILLES);
+        configuration.put("avisParBouteille", AVIS_PAR_BOUTEILLE);
+        configuration.put("regions", NB_REGIONS);
+        configuration.put("concurrency", CONCURRENCY);
+        configuration.put("warmupSecondes", WARMUP_SECONDES);
+        configuration.put("dureeSecondes", DUREE_SECONDES);
+        configuration.put("mix", MIX);
+        configuration.put("seed", SEED);
+
+        Map<String, Object> resultats = new LinkedHashMap<>();
+        for (Route route : routes) {
+            Histogram histogramme = route.latences;
+            Map<String, Object> resultat = new LinkedHashMap<>();
+            resultat.put("route", route.libelle);
+            resultat.put("requetes", histogramme.getTotalCount());
+            resultat.put("erreurs", route.erreurs.sum());
+            resultat.put("debitParSeconde", arrondi(histogramme.getTotalCount() / (double) DUREE_SECONDES));
+            resultat.put("latenceMoyenneMs", arrondi(histogramme.getMean() / 1000));
+            resultat.put("p50Ms", percentileMs(histogramme, 50));
+            resultat.put("p99Ms", percentileMs(histogramme, 99));
+            resultat.put("p999Ms", percentileMs(histogramme, 99.9));
+            resultat.put("maxMs", arrondi(histogramme.getMaxValue() / 1000.0));
+            resultats.put(route.nom, resultat);
+        }
+
+        Map<String, Object> rapport = new LinkedHashMap<>();
+        rapport.put("date", Instant.now().toString());
+        rapport.put("java", System.getProperty("java.version"));
+        rapport.put("configuration", configuration);
+        rapport.put("routes", resultats);
+        return rapport;
+    }
+
+    private static void afficher(List<Route> routes) {
+        System.out.printf("%n%-32s %10s %8s %10s %9s %9s %9s%n",
+                "route", "requêtes", "erreurs", "req/s", "p50 ms", "p99 ms", "p999 ms");
+        for (Route route : routes) {
+            Histogram histogramme = route.latences;
+            System.out.printf("%-32s %10d %8d %10.1f %9.2f %9.2f %9.2f%n", route.libelle,
+                    histogramme.getTotalCount(), route.erreurs.sum(), histogramme.getTotalCount() / (double) DUREE_SECONDES,
+                    percentileMs(histogramme, 50), percentileMs(histogramme, 99), percentileMs(histogramme, 99.9));
+        }
+    }
+
+    private static double percentileMs(Histogram histogramme, double percentile) {
+        return arrondi(histogramme.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    private static double arrondi(double valeur) {
+        return Math.round(valeur * 1000) / 1000.0;
+    }
+
+    private static final class Route {
+        private final String nom;
+        private final String libelle;
+        private final int poids;
+        private final Supplier<HttpRequest.Builder> requete;
+        // Latences en microsecondes, 3 chiffres significatifs
+        private final ConcurrentHistogram latences = new ConcurrentHistogram(LATENCE_MAX_MICROS, 3);
+        private final LongAdder erreurs = new LongAdder();
+
+        Route(String nom, String libelle, int poids, Supplier<HttpRequest.Builder> requete) {
+            this.nom = nom;
+            this.libelle = libelle;
+            this.poids = poids;
+            this.requete = requete;
+        }
+
+        void enregistrer(long nanos, boolean erreur) {
+            latences.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), LATENCE_MAX_MICROS));
+            if (erreur) {
+                erreurs.increment();
+            }
+        }
+
+        void reinitialiser() {
+            latences.reset();
+            erreurs.reset();
+        }
+    }
+}
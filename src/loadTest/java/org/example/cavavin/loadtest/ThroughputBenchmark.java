@@ -0,0 +1,176 @@
+package org.example.cavavin.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.example.cavavin.CavavinApplication;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.Couleur;
+import org.example.cavavin.bo.Region;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark de débit : démarre successivement l'application en mode servlet (Tomcat + MongoRepository, pool de threads),
+ * avec le profil "virtual" (même pile, threads virtuels) puis avec le profil "reactive" (Netty + ReactiveMongoRepository),
+ * et sollicite les mêmes routes avec {@code concurrency} clients en boucle fermée (débit, latence moyenne, p50 et p99).
+ *
+ * Propriétés système (toutes optionnelles) :
+ * cavavin.bench.mongo-uri, cavavin.bench.database (défaut cavavin_bench, vidée puis alimentée),
+ * cavavin.bench.bouteilles (1000), cavavin.bench.concurrency (256),
+ * cavavin.bench.warmup (5 s), cavavin.bench.duration (20 s),
+ * cavavin.bench.piles (défaut "servlet,virtual,reactive").
+ */
+public class ThroughputBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("cavavin.bench.concurrency", 256);
+    private static final int WARMUP_SECONDES = Integer.getInteger("cavavin.bench.warmup", 5);
+    private static final int DUREE_SECONDES = Integer.getInteger("cavavin.bench.duration", 20);
+    private static final int NB_BOUTEILLES = Integer.getInteger("cavavin.bench.bouteilles", 1000);
+    private static final List<String> PILES = List.of(System.getProperty("cavavin.bench.piles", "servlet,virtual,reactive").split(","));
+
+    // Latence maximale enregistrable (µs) : au-delà, la valeur est écrêtée
+    private static final long LATENCE_MAX_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    public static void main(String[] args) throws Exception {
+        List<String> lignes = new ArrayList<>();
+        for (String pile : PILES) {
+            // "servlet" : profil par défaut ; "virtual" et "reactive" sont les profils Spring du même nom
+            lignes.add(pile.equals("servlet") ? executer(pile) : executer(pile, pile));
+        }
+
+        System.out.printf("%n%d clients%n%-10s %12s %14s %10s %10s %10s%n", CONCURRENCY,
+                "pile", "requêtes/s", "latence moy.", "p50", "p99", "erreurs");
+        lignes.forEach(System.out::println);
+    }
+
+    private static String executer(String nom, String... profils) throws Exception {
+        SpringApplication application = new SpringApplication(CavavinApplication.class);
+        application.setAdditionalProfiles(profils);
+
+        // Passées comme arguments de ligne de commande pour primer sur application.yml (logs DEBUG de MongoTemplate)
+        String[] arguments = proprietes().entrySet().stream()
+                .map(propriete -> "--" + propriete.getKey() + "=" + propriete.getValue())
+                .toArray(String[]::new);
+
+        try (ConfigurableApplicationContext contexte = application.run(arguments)) {
+            int port = ((WebServerApplicationContext) contexte).getWebServer().getPort();
+            String idBouteille = alimenter(contexte.getBean(MongoTemplate.class));
+
+            List<URI> routes = List.of(
+                    URI.create("http://localhost:" + port + "/api/bouteilles/" + idBouteille),
+                    URI.create("http://localhost:" + port + "/api/bouteilles?limit=50"),
+                    URI.create("http://localhost:" + port + "/api/bouteilles/resume"));
+
+            solliciter(routes, WARMUP_SECONDES);
+            Mesure mesure = solliciter(routes, DUREE_SECONDES);
+            return String.format("%-10s %12.0f %11.2f ms %7.1f ms %7.1f ms %10d", nom,
+                    mesure.requetes.sum() / (double) DUREE_SECONDES, mesure.latenceMoyenneMs(),
+                    mesure.percentileMs(50), mesure.percentileMs(99), mesure.erreurs.sum());
+        }
+    }
+
+    private static Map<String, Object> proprietes() {
+        Map<String, Object> proprietes = new HashMap<>();
+        proprietes.put("server.port", 0);
+        proprietes.put("logging.level.root", "WARN");
+        proprietes.put("logging.level.org.springframework.data.mongodb.core.MongoTemplate", "WARN");
+        proprietes.put("logging.level.org.springframework.data.mongodb.core.ReactiveMongoTemplate", "WARN");
+        proprietes.put("spring.data.mongodb.database", System.getProperty("cavavin.bench.database", "cavavin_bench"));
+        String uri = System.getProperty("cavavin.bench.mongo-uri");
+        if (uri != null) {
+            proprietes.put("spring.data.mongodb.uri", uri);
+        }
+        return proprietes;
+    }
+
+    // Jeu de données reproductible : la base de benchmark est vidée puis alimentée à chaque exécution
+    private static String alimenter(MongoTemplate mongoTemplate) {
+        mongoTemplate.remove(new Query(), "avis");
+        mongoTemplate.remove(new Query(), Bouteille.class);
+        mongoTemplate.remove(new Query(), Region.class);
+
+        List<Region> regions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            regions.add(new Region("Région " + i));
+        }
+        regions = new ArrayList<>(mongoTemplate.insertAll(regions));
+
+        List<Bouteille> bouteilles = new ArrayList<>();
+        for (int i = 0; i < NB_BOUTEILLES; i++) {
+            Bouteille bouteille = new Bouteille("Bouteille " + i, 1990 + i % 35);
+            bouteille.setRegion(regions.get(i % regions.size()));
+            bouteille.setCouleur(new Couleur(i % 3 == 0 ? "Blanc" : "Rouge"));
+            bouteilles.add(bouteille);
+        }
+        return mongoTemplate.insertAll(bouteilles).iterator().next().getId();
+    }
+
+    private static Mesure solliciter(List<URI> routes, int dureeSecondes) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        Mesure mesure = new Mesure();
+        long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(dureeSecondes);
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        for (int c = 0; c < CONCURRENCY; c++) {
+            int decalage = c;
+            clients.submit(() -> {
+                int n = decalage;
+                while (System.nanoTime() < fin) {
+                    HttpRequest requete = HttpRequest.newBuilder(routes.get(n++ % routes.size()))
+                            .timeout(Duration.ofSeconds(30)).GET().build();
+                    long debut = System.nanoTime();
+                    try {
+                        int statut = client.send(requete, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (statut >= 400) {
+                            mesure.erreurs.increment();
+                        }
+                    } catch (Exception e) {
+                        mesure.erreurs.increment();
+                    }
+                    mesure.enregistrer(System.nanoTime() - debut);
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(dureeSecondes + 60L, TimeUnit.SECONDS);
+        return mesure;
+    }
+
+    private static final class Mesure {
+        private final LongAdder requetes = new LongAdder();
+        private final LongAdder cumulNanos = new LongAdder();
+        private final LongAdder erreurs = new LongAdder();
+        private final ConcurrentHistogram latences = new ConcurrentHistogram(LATENCE_MAX_MICROS, 3);
+
+        void enregistrer(long nanos) {
+            requetes.increment();
+            cumulNanos.add(nanos);
+            latences.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), LATENCE_MAX_MICROS));
+        }
+
+        double percentileMs(double percentile) {
+            return latences.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        double latenceMoyenneMs() {
+            long n = requetes.sum();
+            return n == 0 ? 0 : cumulNanos.sum() / (double) n / 1_000_000;
+        }
+    }
+}
@@ -2,8 +2,10 @@ package org.example.cavavin;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class CavavinApplication {
 
     public static void main(String[] args) {
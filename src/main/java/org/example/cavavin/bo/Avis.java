@@ -1,25 +1,34 @@
 package org.example.cavavin.bo;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
 @Data
 @RequiredArgsConstructor
-@Document("avis")
+@Document(collection = "avis", language = "french")
 public class Avis {
     @Id
     private String id;
     @NonNull
+    @TextIndexed // Recherche plein texte : un avis correspondant fait remonter sa bouteille
     private String commentaire;
 
     // NOUVEAU CHAMP : Référence inversée vers la bouteille parente
     // Cela permet de savoir à quelle bouteille appartient cet avis,
     // ce qui est crucial pour les requêtes.
+    // Non sérialisée en JSON : la bouteille référence déjà ses avis (cycle) et l'accès déclencherait le chargement paresseux
+    // Indexée : la page d'avis de la consultation détaillée est jointe sur ce champ
+    // À la lecture (AvisReadConverter), seul l'ID de la bouteille est renseigné : elle n'est jamais chargée
     @NonNull
+    @JsonIgnore
+    @Indexed
     @DocumentReference(lazy = true)
     private Bouteille bouteille;
 }
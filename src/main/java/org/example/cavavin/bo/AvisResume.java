@@ -0,0 +1,19 @@
+package org.example.cavavin.bo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Résumé d'un avis intégré (sous-document) dans la bouteille : affiché sans lire la collection 'avis'
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvisResume {
+
+    private String id;
+    private String commentaire;
+
+    public static AvisResume de(Avis avis) {
+        return new AvisResume(avis.getId(), avis.getCommentaire());
+    }
+}
@@ -1,11 +1,15 @@
 package org.example.cavavin.bo;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
@@ -16,20 +20,36 @@ import java.util.List;
 @RequiredArgsConstructor
 @NoArgsConstructor
 @Data
-@Document("bouteilles")
+// Langue par défaut de l'index texte (racinisation et mots vides français)
+@Document(collection = "bouteilles", language = "french")
+// Index du filtre du catalogue (égalités avant l'intervalle de millésime) ; le premier sert aussi findByCouleur_Libelle
+@CompoundIndex(name = "couleur_region_millesime", def = "{'couleur.libelle': 1, 'region_id': 1, 'millesime': 1}")
+@CompoundIndex(name = "region_millesime", def = "{'region_id': 1, 'millesime': 1}")
+@CompoundIndex(name = "millesime", def = "{'millesime': 1}")
+// Repli des suggestions par préfixe (SuggestionsNoms) : même clé que l'index unique, comparée sans casse ni accents.
+// Une requête n'utilise un index que si leurs collations sont identiques (voir BouteilleRepositoryCustomImpl.COLLATION_NOMS)
+@CompoundIndex(name = "nom_fr_primaire", def = "{'nom': 1}", collation = "{'locale': 'fr', 'strength': 1}")
 
 public class Bouteille {
+    // Nombre d'avis conservés dans le résumé 'derniersAvis'
+    public static final int NB_DERNIERS_AVIS = 5;
+
     @Id
     private String id;
 
+    // Verrouillage optimiste : incrémentée à chaque écriture (modification, ajout d'avis), sert aussi d'ETag
+    @Version
+    private Long version;
+
     @Field("nom")
     @Indexed(unique = true)
+    @TextIndexed // Recherche plein texte (GET /api/bouteilles/search)
     @NonNull
     private String nom;
     @NonNull
     private Integer millesime;
 
-    //Stratégie2
+    //Stratégie2 : à la lecture (BouteilleReadConverter), la région est lue depuis le RegionCache
     @DocumentReference(lazy = true)
     @Field("region_id")
     private Region region;
@@ -38,6 +58,15 @@ public class Bouteille {
 
 
     // NOUVELLE STRATÉGIE : Référencement (Stocke une liste d'IDs d'Avis)
+    // À la lecture (BouteilleReadConverter), liste paresseuse chargée en une requête au premier accès
+    // Non sérialisée en JSON : sur une liste (GET /api/bouteilles), chaque bouteille chargerait ses avis ;
+    // 'nbAvis' et 'derniersAvis' les résument, la consultation détaillée (BouteilleDetail) en donne une page
+    @JsonIgnore
     @DocumentReference(lazy = true) // lazy = true est souvent conseillé pour les collections 1-N
     private List<Avis> avis;
+
+    // Champs dénormalisés, mis à jour par $inc / $push ($slice) à chaque ajout d'avis :
+    // les statistiques d'avis s'affichent sans résoudre la liste 'avis'
+    private int nbAvis;
+    private List<AvisResume> derniersAvis;
 }
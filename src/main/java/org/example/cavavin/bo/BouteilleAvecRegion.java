@@ -0,0 +1,32 @@
+package org.example.cavavin.bo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.List;
+
+/**
+ * Vue de lecture d'une bouteille pour les listes paginées.
+ * La région est embarquée (résolue depuis le RegionCache, ou jointe par $lookup) au lieu d'être une référence paresseuse,
+ * et les avis ne sont pas chargés : la sérialisation JSON ne déclenche donc aucune requête supplémentaire.
+ */
+@Data
+@NoArgsConstructor
+public class BouteilleAvecRegion {
+
+    private String id;
+    private Long version;
+    private String nom;
+    private Integer millesime;
+    private Couleur couleur;
+    private Region region;
+    private int nbAvis;
+    private List<AvisResume> derniersAvis;
+
+    // ID brut de la région, lu pour la résolution par le cache (non exposé en JSON)
+    @JsonIgnore
+    @Field("region_id")
+    private String regionId;
+}
@@ -0,0 +1,26 @@
+package org.example.cavavin.bo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Vue de lecture pour la consultation détaillée d'une bouteille.
+ * Région et page d'avis sont chargées par une seule agrégation ($lookup) ; les avis sont des AvisResume
+ * (sans référence vers la bouteille) : la sérialisation JSON ne déclenche aucune requête et ne peut pas boucler.
+ * 'derniersAvis' (résumé des listes) n'est ni lu ni exposé : la page d'avis le contient déjà.
+ */
+@JsonIgnoreProperties("derniersAvis")
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@NoArgsConstructor
+public class BouteilleDetail extends BouteilleAvecRegion {
+
+    // Les avis les plus récents d'abord, au plus la limite demandée (voir 'nbAvis' pour le total)
+    private List<AvisResume> avis;
+}
@@ -1,16 +1,25 @@
 package org.example.cavavin.bo;
 
-// Interface de projection de Spring Data. Elle n'a pas besoin d'être implémentée.
-public interface BouteilleResume {
+import lombok.Value;
 
-    // Retourne le nom du champ "nom" du document Bouteille
-    String getNom();
+import java.util.List;
 
-    // Retourne le champ "millesime"
-    Integer getMillesime();
+/**
+ * Projection de classe (immuable) pour la liste résumée des bouteilles.
+ * Lue directement depuis le document BSON par BouteilleResumeReadConverter, avec les seuls champs projetés :
+ * ni proxy d'interface, ni copie vers un DTO. Sérialisée telle quelle en JSON (GET /api/bouteilles/resume).
+ */
+@Value
+public class BouteilleResume {
 
-    // Spring Data gère l'imbrication dans le sous-document Couleur
-    Couleur getCouleur();
+    // Champs lus dans le document Bouteille (voir BouteilleResumeReadConverter.CHAMPS)
+    String nom;
+    Integer millesime;
+    Couleur couleur;
+
+    // Compteur et derniers avis dénormalisés : aucune lecture de la collection 'avis'
+    int nbAvis;
+    List<AvisResume> derniersAvis;
 
     // On ignore le champ Region et Avis dans cette vue optimisée.
-}
\ No newline at end of file
+}
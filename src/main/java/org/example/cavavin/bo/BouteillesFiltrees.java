@@ -0,0 +1,22 @@
+package org.example.cavavin.bo;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Résultat du filtre du catalogue, produit par une seule agrégation $facet :
+ * la page de bouteilles (région jointe), le nombre total de bouteilles filtrées et les décomptes par facette.
+ * Les décomptes portent sur l'ensemble des bouteilles filtrées, pas seulement sur la page.
+ */
+@Data
+@NoArgsConstructor
+public class BouteillesFiltrees {
+
+    private List<BouteilleAvecRegion> contenu;
+    private long total;
+    private List<Facette> couleurs;
+    private List<Facette> regions;
+    private List<FacetteMillesime> millesimes;
+}
@@ -0,0 +1,18 @@
+package org.example.cavavin.bo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Décompte d'une valeur de filtre (couleur, région) parmi les bouteilles filtrées
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Facette {
+
+    // Valeur à renvoyer dans le filtre (libellé de couleur, ID de région)
+    private String valeur;
+    // Libellé affichable (nom de la région)
+    private String libelle;
+    private long nombre;
+}
@@ -0,0 +1,15 @@
+package org.example.cavavin.bo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Décompte des bouteilles filtrées par décennie de millésime (ex: 1990 pour 1990-1999)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetteMillesime {
+
+    private int decennie;
+    private long nombre;
+}
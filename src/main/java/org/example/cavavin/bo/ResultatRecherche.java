@@ -0,0 +1,21 @@
+package org.example.cavavin.bo;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Résultat de la recherche plein texte : la bouteille (région résolue depuis le RegionCache),
+ * son score de pertinence et le nombre de ses avis qui correspondent à la recherche.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@NoArgsConstructor
+public class ResultatRecherche extends BouteilleAvecRegion {
+
+    // Meilleur score textuel, sur le nom de la bouteille ou sur l'un de ses avis
+    private double score;
+    private int avisCorrespondants;
+}
@@ -0,0 +1,49 @@
+package org.example.cavavin.bo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Ligne de la collection matérialisée 'statistiques' : nombre de bouteilles et d'avis d'un groupe
+ * (une région, une couleur ou un millésime). Maintenue par incréments à chaque écriture des services,
+ * et recalculée entièrement par la reconstruction ($merge).
+ * Sert aussi de variation (bouteilles et avis ajoutés, négatifs s'ils sont retirés) pour les incréments.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document("statistiques")
+public class Statistique {
+
+    public static final String REGION = "region";
+    public static final String COULEUR = "couleur";
+    public static final String MILLESIME = "millesime";
+
+    @Id
+    private Cle id;
+    private long bouteilles;
+    private long avis;
+    // Dernière écriture (incrément ou reconstruction) : les groupes absents d'une reconstruction sont retirés
+    private Date majLe;
+
+    public Statistique(Cle id, long bouteilles, long avis) {
+        this(id, bouteilles, avis, null);
+    }
+
+    /**
+     * Identifiant composé : dimension (region, couleur, millesime) et valeur du groupe, en chaîne
+     * (ID de la région, libellé de la couleur, millésime).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cle {
+        private String dimension;
+        private String valeur;
+    }
+}
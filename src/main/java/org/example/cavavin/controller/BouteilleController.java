@@ -1,24 +1,74 @@
 package org.example.cavavin.controller;
 
-import org.example.cavavin.bo.Bouteille;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import org.example.cavavin.bo.Avis;
-import org.example.cavavin.controller.dto.BouteilleResumeDTO;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.example.cavavin.bo.BouteilleDetail;
+import org.example.cavavin.bo.BouteilleResume;
+import org.example.cavavin.bo.BouteillesFiltrees;
+import org.example.cavavin.bo.ResultatRecherche;
+import org.example.cavavin.controller.admission.Cloison;
+import org.example.cavavin.controller.cache.ResumeCache;
+import org.example.cavavin.controller.dto.AvisImportDTO;
+import org.example.cavavin.controller.dto.AvisImportResultatDTO;
+import org.example.cavavin.controller.dto.BouteilleModificationDTO;
+import org.example.cavavin.controller.dto.NouvelAvisDTO;
+import org.example.cavavin.controller.dto.PageCurseurDTO;
+import org.example.cavavin.controller.dto.SuppressionMasseDTO;
+import org.example.cavavin.controller.dto.SuppressionMasseResultatDTO;
 import org.example.cavavin.service.BouteilleService;
+import org.example.cavavin.service.FileAvisDifferee;
+import org.example.cavavin.service.exception.ParametreInvalideException;
+import org.example.cavavin.service.exception.VersionObsoleteException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/bouteilles")
-// Pour la gestion des exceptions centralisée
-// (Nous devrons implémenter un @ControllerAdvice plus tard)
+@Profile("!reactive") // Remplacé par ReactiveBouteilleController avec le profil "reactive"
+@Cloison(Cloison.Type.LEGERE) // Admission (AdmissionConfig) : les endpoints coûteux sont dans la cloison LOURDE
 public class BouteilleController {
 
+    // Type de contenu du flux JSON délimité par des retours à la ligne (un objet par ligne)
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    // Tampon du flux gzip de l'export : les écritures vers la réponse se font par blocs de cette taille
+    private static final int TAMPON_EXPORT = 64 * 1024;
+
     @Autowired
     private BouteilleService bouteilleService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ResumeCache resumeCache;
+
+    @Autowired
+    private FileAvisDifferee fileAvisDifferee;
+
     // --- 1. ENDPOINTS DE LECTURE (GET) ---
 
     /**
@@ -27,35 +77,131 @@ public class BouteilleController {
      * Les avis restent en Lazy Loading.
      * Ex: GET /api/bouteilles
      */
+    @Cloison(Cloison.Type.LOURDE)
     @GetMapping
     public List<Bouteille> findAll() {
         // Délègue au service la méthode qui utilise le $lookup optimisé
         return bouteilleService.findAllWithRegionEagerly();
     }
 
+    /**
+     * Endpoint pour parcourir les bouteilles page par page (pagination par curseur).
+     * Sélectionné dès que le paramètre 'limit' est présent ; la latence d'une page ne dépend pas de sa profondeur.
+     * Ex: GET /api/bouteilles?limit=100 puis GET /api/bouteilles?limit=100&curseur={curseurSuivant}
+     */
+    @GetMapping(params = "limit")
+    public PageCurseurDTO<BouteilleAvecRegion> findPage(@RequestParam int limit,
+                                                        @RequestParam(required = false) String curseur) {
+        return bouteilleService.findPageWithRegionEagerly(curseur, limit);
+    }
+
+    /**
+     * Endpoint de suggestions pour la saisie (auto-complétion) : les noms qui commencent par le préfixe,
+     * sans tenir compte de la casse ni des accents. Servi depuis la mémoire : aucune requête MongoDB par frappe.
+     * Ex: GET /api/bouteilles/suggest?prefix=chat&limite=10
+     */
+    @GetMapping("/suggest")
+    public List<String> suggerer(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limite) {
+        return bouteilleService.suggerer(prefix, limite);
+    }
+
+    /**
+     * Endpoint de recherche plein texte sur le nom des bouteilles et le commentaire de leurs avis,
+     * par pertinence décroissante (les 1000 premiers résultats au plus).
+     * Ex: GET /api/bouteilles/search?q=fruité boisé&page=0&taille=20
+     */
+    @Cloison(Cloison.Type.LOURDE)
+    @GetMapping("/search")
+    public List<ResultatRecherche> rechercher(@RequestParam String q,
+                                              @RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(defaultValue = "20") int taille) {
+        return bouteilleService.rechercher(q, page, taille);
+    }
+
+    /**
+     * Endpoint de filtre du catalogue : critères combinables (tous optionnels), page de résultats et décomptes
+     * par couleur, région et décennie de millésime, calculés par une seule agrégation.
+     * Ex: GET /api/bouteilles/filtre?couleur=Rouge&millesimeMin=2000&millesimeMax=2010&regionId=...&page=0&taille=20
+     */
+    @Cloison(Cloison.Type.LOURDE)
+    @GetMapping("/filtre")
+    public BouteillesFiltrees filtrer(@RequestParam(required = false) String couleur,
+                                      @RequestParam(required = false) Integer millesimeMin,
+                                      @RequestParam(required = false) Integer millesimeMax,
+                                      @RequestParam(required = false) String regionId,
+                                      @RequestParam(defaultValue = "0") int page,
+                                      @RequestParam(defaultValue = "20") int taille) {
+        return bouteilleService.filtrer(couleur, millesimeMin, millesimeMax, regionId, page, taille);
+    }
+
     /**
      * Endpoint pour la consultation détaillée d'une bouteille par ID.
-     * Ex: GET /api/bouteilles/60c72b9f36f9011e4c34a36f
-     * (Les avis et la région seront chargés selon leur stratégie : Eager/Lazy)
+     * Ex: GET /api/bouteilles/60c72b9f36f9011e4c34a36f?limiteAvis=20
+     * (La région et les avis les plus récents sont chargés par une seule agrégation : une requête MongoDB)
+     * L'ETag est la version de la bouteille (incrémentée à chaque modification et à chaque ajout d'avis) :
+     * avec If-None-Match, une bouteille inchangée est répondue en 304, sans corps à sérialiser.
      */
     @GetMapping("/{id}")
-    public Bouteille findById(@PathVariable String id) {
+    public ResponseEntity<BouteilleDetail> findById(@PathVariable String id,
+                                                    @RequestParam(defaultValue = "20") int limiteAvis) {
         // Le service gère la levée de l'exception 404 si la ressource n'est pas trouvée
-        return bouteilleService.findById(id);
+        BouteilleDetail detail = bouteilleService.findDetailById(id, limiteAvis);
+        // Spring compare l'ETag à If-None-Match et remplace la réponse par un 304 s'ils correspondent
+        return ResponseEntity.ok()
+                .eTag(etag(detail.getVersion()))
+                .body(detail);
     }
 
     // --- 2. ENDPOINTS D'ÉCRITURE/MODIFICATION (POST/DELETE) ---
 
+    /**
+     * Endpoint de modification partielle d'une bouteille (seuls les champs renseignés sont modifiés).
+     * Avec If-Match (ETag lu par GET /{id}), la modification n'a lieu que si la bouteille n'a pas changé depuis :
+     * sinon 412 Precondition Failed, sans écraser l'écriture concurrente. Retourne le nouvel ETag.
+     * Ex: PATCH /api/bouteilles/60c72b9f36f9011e4c34a36f avec If-Match: "3"
+     * Corps de la requête (Body): { "millesime": 2019, "couleur": "Rouge" }
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> modifier(@PathVariable String id,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                         @RequestBody BouteilleModificationDTO modification) {
+        long version = bouteilleService.modifier(id, versionAttendue(id, ifMatch), modification);
+        return ResponseEntity.noContent()
+                .eTag(etag(version))
+                .build();
+    }
+
     /**
      * Endpoint pour ajouter un nouvel avis à une bouteille existante (Opération Atomique).
      * Ex: POST /api/bouteilles/60c72b9f36f9011e4c34a36f/avis
      * Corps de la requête (Body): { "commentaire": "Magnifique vin de garde." }
+     * Avec l'écriture différée (cavavin.avis.ecriture-differee.actif), l'avis passe par FileAvisDifferee :
+     * 202 Accepted dès sa mise en file (acquittement MISE_EN_FILE), 429 si la file est pleine,
+     * 503 si l'écriture n'est pas confirmée dans le délai (acquittement ECRITURE) : l'avis n'est alors pas écrit,
+     * sauf si le message indique son ID (écriture en cours).
      */
     @PostMapping("/{bouteilleId}/avis")
-    @ResponseStatus(HttpStatus.CREATED) // Retourne 201 Created si succès
-    public Avis ajouterAvis(@PathVariable String bouteilleId, @RequestBody Avis newAvis) {
-        // Le service gère l'écriture dans les deux collections (Avis + Bouteille) de manière atomique
-        return bouteilleService.ajouterAvis(bouteilleId, newAvis.getCommentaire());
+    public ResponseEntity<Avis> ajouterAvis(@PathVariable String bouteilleId, @RequestBody NouvelAvisDTO newAvis) {
+        if (fileAvisDifferee.isActif()) {
+            Avis avis = fileAvisDifferee.ajouter(bouteilleId, newAvis.getCommentaire());
+            return ResponseEntity.status(fileAvisDifferee.getAcquittement() == FileAvisDifferee.Acquittement.MISE_EN_FILE
+                    ? HttpStatus.ACCEPTED : HttpStatus.CREATED).body(avis);
+        }
+        // Le service gère l'écriture dans les deux collections (Avis + Bouteille) sans transaction ($push atomique)
+        return ResponseEntity.status(HttpStatus.CREATED) // Retourne 201 Created si succès
+                .body(bouteilleService.ajouterAvis(bouteilleId, newAvis.getCommentaire()));
+    }
+
+    /**
+     * Endpoint d'import en masse d'avis (plusieurs bouteilles en un seul appel).
+     * Retourne un résultat par avis (CREE, BOUTEILLE_INTROUVABLE ou ERREUR), dans l'ordre de la requête.
+     * Ex: POST /api/bouteilles/avis
+     * Corps de la requête (Body): [ { "bouteilleId": "60c7...", "commentaire": "Fruité." }, ... ]
+     */
+    @Cloison(Cloison.Type.LOURDE)
+    @PostMapping("/avis")
+    public List<AvisImportResultatDTO> ajouterAvisEnMasse(@RequestBody List<AvisImportDTO> avis) {
+        return bouteilleService.ajouterAvisEnMasse(avis);
     }
 
     /**
@@ -69,14 +215,157 @@ public class BouteilleController {
         bouteilleService.supprimerBouteilleEtAvisAssocies(id);
     }
 
+    /**
+     * Endpoint de suppression en masse (bouteilles et avis) : une liste d'IDs ou des critères de filtre,
+     * un deleteMany par collection. Avec "asynchrone": true, les avis sont supprimés après la réponse (202 Accepted).
+     * Ex: POST /api/bouteilles/suppression
+     * Corps de la requête (Body): { "ids": ["60c7...", ...] } ou { "regionId": "60c7...", "asynchrone": true }
+     */
+    @Cloison(Cloison.Type.LOURDE)
+    @PostMapping("/suppression")
+    public ResponseEntity<SuppressionMasseResultatDTO> supprimerEnMasse(@RequestBody SuppressionMasseDTO suppression) {
+        SuppressionMasseResultatDTO resultat = bouteilleService.supprimerEnMasse(suppression);
+        return ResponseEntity.status(resultat.isBalayageProgramme() ? HttpStatus.ACCEPTED : HttpStatus.OK).body(resultat);
+    }
+
     // --- 3. ENDPOINT DE PERFORMANCE (Projection) ---
 
     /**
      * Endpoint pour charger uniquement les résumés des bouteilles (Projection).
      * Ex: GET /api/bouteilles/resume
      */
+    @Cloison(Cloison.Type.LOURDE)
     @GetMapping("/resume")
-    public List<BouteilleResumeDTO> findAllResume() {
-        return bouteilleService.findAllResume();
+    public ResponseEntity<?> findAllResume(HttpServletRequest requete,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+            throws IOException {
+        // Réponse pré-sérialisée et compressée du ResumeCache ; sans cache (désactivé ou trop volumineux) : requête MongoDB
+        Optional<ResumeCache.Reponse> enCache = resumeCache.obtenir();
+        if (enCache.isEmpty()) {
+            return ResponseEntity.ok(bouteilleService.findAllResume());
+        }
+        // L'ETag est calculé au chargement du cache : pas de mise en tampon par ShallowEtagHeaderFilter
+        ShallowEtagHeaderFilter.disableContentCaching(requete);
+        ResumeCache.Reponse reponse = enCache.get();
+        ResponseEntity.BodyBuilder entete = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(reponse.getEtag())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (accepteGzip(acceptEncoding)) {
+            return entete.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(new ByteArrayResource(reponse.getGzip()));
+        }
+        // Client sans gzip (rare) : décompressé à la volée, sans copie complète en mémoire
+        return entete.body(new InputStreamResource(new GZIPInputStream(new ByteArrayInputStream(reponse.getGzip()))));
+    }
+
+    /**
+     * Variante en flux de l'endpoint des résumés, sélectionnée par l'en-tête Accept.
+     * Chaque résumé est écrit sur sa propre ligne dès sa lecture depuis le curseur MongoDB :
+     * la mémoire reste constante et le premier octet part sans attendre la fin de la requête.
+     * Ex: GET /api/bouteilles/resume avec Accept: application/x-ndjson
+     */
+    @Cloison(value = Cloison.Type.LOURDE, flux = true)
+    @GetMapping(value = "/resume", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllResume(HttpServletRequest requete) {
+        // Le flux ne doit pas être mis en tampon pour calculer un ETag (voir EtagConfig)
+        ShallowEtagHeaderFilter.disableContentCaching(requete);
+        StreamingResponseBody corps = sortie -> {
+            try (Stream<BouteilleResume> resumes = bouteilleService.streamAllResume();
+                 JsonGenerator generateur = objectMapper.getFactory().createGenerator(sortie)) {
+                Iterator<BouteilleResume> iterateur = resumes.iterator();
+                boolean premier = true;
+                while (iterateur.hasNext()) {
+                    generateur.writeObject(iterateur.next());
+                    generateur.writeRaw('\n');
+                    if (premier) {
+                        // On pousse la première ligne immédiatement ; ensuite les tampons se vident d'eux-mêmes
+                        generateur.flush();
+                        premier = false;
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(corps);
+    }
+
+    /**
+     * Export du catalogue complet en NDJSON : une ligne par bouteille, avec sa région et tous ses avis.
+     * Remplace la liste suivie d'un GET /{id} par bouteille (N+1 appels) : une seule agrégation MongoDB,
+     * lue au fil du curseur et écrite directement dans la réponse, compressée en gzip si le client l'accepte.
+     * La mémoire reste constante (une bouteille et le tampon gzip), quel que soit le volume exporté.
+     * Ex: curl --compressed http://localhost:8080/api/bouteilles/export > catalogue.ndjson
+     */
+    @Cloison(value = Cloison.Type.LOURDE, flux = true)
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exporter(HttpServletRequest requete,
+                                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ShallowEtagHeaderFilter.disableContentCaching(requete);
+        boolean gzip = accepteGzip(acceptEncoding);
+        StreamingResponseBody corps = sortie -> {
+            try (Stream<BouteilleDetail> bouteilles = bouteilleService.streamExport();
+                 OutputStream flux = gzip ? new GZIPOutputStream(sortie, TAMPON_EXPORT) : sortie;
+                 JsonGenerator generateur = objectMapper.getFactory().createGenerator(flux)) {
+                // Séparateur de lignes écrit explicitement (pas d'espace entre deux valeurs racines)
+                generateur.setRootValueSeparator(null);
+                Iterator<BouteilleDetail> iterateur = bouteilles.iterator();
+                while (iterateur.hasNext()) {
+                    generateur.writeObject(iterateur.next());
+                    generateur.writeRaw('\n');
+                }
+            }
+        };
+        ResponseEntity.BodyBuilder entete = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            entete.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return entete.body(corps);
+    }
+
+    // gzip accepté, sauf avec une qualité nulle (gzip;q=0)
+    private static boolean accepteGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codage : acceptEncoding.split(",")) {
+            String[] parties = codage.trim().split(";");
+            if (parties[0].trim().equalsIgnoreCase("gzip")) {
+                return parties.length < 2 || !parties[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // --- ETag (version de la bouteille) ---
+
+    // Les bouteilles écrites sans version (import antérieur au verrouillage optimiste) sont en version 0
+    private static String etag(Long version) {
+        return "\"" + (version == null ? 0 : version) + "\"";
+    }
+
+    /**
+     * Version attendue d'après l'en-tête If-Match : null si absent ou "*" (toute version), 400 si ce n'est pas un ETag de bouteille.
+     * If-Match exige une comparaison forte : un ETag faible (W/"…") ne correspond à aucune version (412).
+     */
+    private static Long versionAttendue(String id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valeur = ifMatch.trim();
+        if (valeur.startsWith("W/")) {
+            throw new VersionObsoleteException("Bouteille", id, ifMatch);
+        }
+        if (valeur.length() > 2 && valeur.startsWith("\"") && valeur.endsWith("\"")) {
+            try {
+                return Long.parseLong(valeur.substring(1, valeur.length() - 1));
+            } catch (NumberFormatException e) {
+                // Traité ci-dessous
+            }
+        }
+        throw new ParametreInvalideException("En-tête If-Match invalide : " + ifMatch);
     }
-}
\ No newline at end of file
+}
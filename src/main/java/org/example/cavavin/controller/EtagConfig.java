@@ -0,0 +1,27 @@
+package org.example.cavavin.controller;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * GET conditionnels sur les lectures de l'API bouteilles (listes, pages, résumés, filtre, recherche) :
+ * l'ETag est un hachage du corps JSON, et une réponse inchangée (If-None-Match) part en 304 sans corps.
+ * La requête et la sérialisation ont toujours lieu, mais la bande passante est économisée pour les clients qui relisent.
+ * Une réponse qui porte déjà son ETag (GET /{id} : version de la bouteille) le conserve ;
+ * les flux NDJSON s'en excluent (ShallowEtagHeaderFilter.disableContentCaching) pour ne pas être mis en tampon.
+ */
+@Configuration
+@Profile("!reactive")
+public class EtagConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> enregistrement = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        enregistrement.addUrlPatterns("/api/bouteilles", "/api/bouteilles/*");
+        enregistrement.setName("shallowEtagHeaderFilter");
+        return enregistrement;
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.cavavin.controller;
+
+import org.example.cavavin.controller.dto.ImportRapportDTO;
+import org.example.cavavin.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/import")
+@Profile("!reactive") // Lecture bloquante du corps de la requête (pile servlet)
+public class ImportController {
+
+    @Autowired
+    private ImportService importService;
+
+    /**
+     * Import d'un catalogue CSV (en-tête : nom,millesime,couleur,region), lu au fil de l'eau.
+     * Ex: curl -X POST -H 'Content-Type: text/csv' --data-binary @catalogue.csv /api/import/bouteilles
+     */
+    @PostMapping(value = "/bouteilles", consumes = "text/csv")
+    public ImportRapportDTO importerCsv(InputStream corps) throws IOException {
+        return importService.importerBouteilles(corps, ImportService.Format.CSV);
+    }
+
+    /**
+     * Import d'un catalogue NDJSON (un objet bouteille par ligne), lu au fil de l'eau.
+     * Ex: curl -X POST -H 'Content-Type: application/x-ndjson' --data-binary @catalogue.ndjson /api/import/bouteilles
+     */
+    @PostMapping(value = "/bouteilles", consumes = BouteilleController.APPLICATION_NDJSON_VALUE)
+    public ImportRapportDTO importerNdjson(InputStream corps) throws IOException {
+        return importService.importerBouteilles(corps, ImportService.Format.NDJSON);
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.cavavin.controller;
+
+import org.example.cavavin.bo.Avis;
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.example.cavavin.bo.BouteilleResume;
+import org.example.cavavin.controller.dto.NouvelAvisDTO;
+import org.example.cavavin.controller.dto.PageCurseurDTO;
+import org.example.cavavin.service.ReactiveBouteilleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Variante WebFlux de BouteilleController, active avec le profil "reactive" (serveur Netty).
+ * Mêmes routes ; les lectures retournent BouteilleAvecRegion (région embarquée, sans avis).
+ */
+@RestController
+@RequestMapping("/api/bouteilles")
+@Profile("reactive")
+public class ReactiveBouteilleController {
+
+    @Autowired
+    private ReactiveBouteilleService bouteilleService;
+
+    // --- 1. ENDPOINTS DE LECTURE (GET) ---
+
+    /**
+     * Ex: GET /api/bouteilles
+     */
+    @GetMapping
+    public Flux<BouteilleAvecRegion> findAll() {
+        return bouteilleService.findAllWithRegionEagerly();
+    }
+
+    /**
+     * Ex: GET /api/bouteilles?limit=100&curseur={curseurSuivant}
+     */
+    @GetMapping(params = "limit")
+    public Mono<PageCurseurDTO<BouteilleAvecRegion>> findPage(@RequestParam int limit,
+                                                              @RequestParam(required = false) String curseur) {
+        return bouteilleService.findPageWithRegionEagerly(curseur, limit);
+    }
+
+    /**
+     * Ex: GET /api/bouteilles/60c72b9f36f9011e4c34a36f
+     */
+    @GetMapping("/{id}")
+    public Mono<BouteilleAvecRegion> findById(@PathVariable String id) {
+        return bouteilleService.findById(id);
+    }
+
+    // --- 2. ENDPOINTS D'ÉCRITURE/MODIFICATION (POST/DELETE) ---
+
+    /**
+     * Ex: POST /api/bouteilles/60c72b9f36f9011e4c34a36f/avis
+     * Corps de la requête (Body): { "commentaire": "Magnifique vin de garde." }
+     */
+    @PostMapping("/{bouteilleId}/avis")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Avis> ajouterAvis(@PathVariable String bouteilleId, @RequestBody NouvelAvisDTO newAvis) {
+        return bouteilleService.ajouterAvis(bouteilleId, newAvis.getCommentaire());
+    }
+
+    /**
+     * Ex: DELETE /api/bouteilles/60c72b9f36f9011e4c34a36f
+     */
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteBouteille(@PathVariable String id) {
+        return bouteilleService.supprimerBouteilleEtAvisAssocies(id);
+    }
+
+    // --- 3. ENDPOINT DE PERFORMANCE (Projection) ---
+
+    /**
+     * Tableau JSON par défaut ; avec Accept: application/x-ndjson, WebFlux émet une ligne par résumé.
+     * Ex: GET /api/bouteilles/resume
+     */
+    @GetMapping(value = "/resume", produces = {MediaType.APPLICATION_JSON_VALUE, BouteilleController.APPLICATION_NDJSON_VALUE})
+    public Flux<BouteilleResume> findAllResume() {
+        return bouteilleService.findAllResume();
+    }
+}
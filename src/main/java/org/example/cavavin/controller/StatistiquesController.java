@@ -0,0 +1,40 @@
+package org.example.cavavin.controller;
+
+import org.example.cavavin.controller.dto.StatistiquesDTO;
+import org.example.cavavin.service.StatistiquesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/stats")
+@Profile("!reactive") // Les écritures de la pile réactive ne mettent pas les statistiques à jour (voir StatistiquesService)
+public class StatistiquesController {
+
+    @Autowired
+    private StatistiquesService statistiquesService;
+
+    /**
+     * Nombre de bouteilles et d'avis par région, par couleur et par millésime (lignes précalculées).
+     * Ex: GET /api/stats
+     */
+    @GetMapping
+    public StatistiquesDTO lire() {
+        return statistiquesService.lire();
+    }
+
+    /**
+     * Reconstruction complète et synchrone, après une reprise de données par exemple.
+     * Ex: POST /api/stats/reconstruction
+     */
+    @PostMapping("/reconstruction")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void reconstruire() {
+        statistiquesService.reconstruire();
+    }
+}
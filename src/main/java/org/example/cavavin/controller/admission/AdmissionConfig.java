@@ -0,0 +1,53 @@
+package org.example.cavavin.controller.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Cloisons d'admission des endpoints annotés @Cloison (BouteilleController) : les requêtes lourdes (catalogue complet,
+ * recherche, export, écritures en masse) et légères (une bouteille, une page) ont chacune leur limite adaptative,
+ * si bien qu'une rafale de requêtes lourdes ne retarde plus les consultations.
+ * Propriétés, par cloison (cavavin.admission.lourdes / .legeres) : limite-initiale, limite-min, limite-max, latence-cible ;
+ * cavavin.admission.facteur-reduction (réduction multiplicative) ; cavavin.admission.actif=false les désactive.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "cavavin.admission.actif", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    private final AdmissionInterceptor interceptor;
+
+    @Autowired
+    public AdmissionConfig(MeterRegistry meterRegistry,
+                           @Value("${cavavin.admission.facteur-reduction:0.9}") double facteurReduction,
+                           @Value("${cavavin.admission.lourdes.limite-initiale:4}") int lourdesInitiale,
+                           @Value("${cavavin.admission.lourdes.limite-min:1}") int lourdesMin,
+                           @Value("${cavavin.admission.lourdes.limite-max:32}") int lourdesMax,
+                           @Value("${cavavin.admission.lourdes.latence-cible:2s}") Duration lourdesLatence,
+                           @Value("${cavavin.admission.legeres.limite-initiale:50}") int legeresInitiale,
+                           @Value("${cavavin.admission.legeres.limite-min:5}") int legeresMin,
+                           @Value("${cavavin.admission.legeres.limite-max:400}") int legeresMax,
+                           @Value("${cavavin.admission.legeres.latence-cible:200ms}") Duration legeresLatence) {
+        Map<Cloison.Type, LimiteAdaptative> limites = new EnumMap<>(Cloison.Type.class);
+        limites.put(Cloison.Type.LOURDE, new LimiteAdaptative("lourde", lourdesInitiale, lourdesMin, lourdesMax,
+                lourdesLatence, facteurReduction, meterRegistry));
+        limites.put(Cloison.Type.LEGERE, new LimiteAdaptative("legere", legeresInitiale, legeresMin, legeresMax,
+                legeresLatence, facteurReduction, meterRegistry));
+        this.interceptor = new AdmissionInterceptor(limites);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.cavavin.controller.admission;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Map;
+
+/**
+ * Contrôle d'admission des endpoints annotés @Cloison : la requête prend une place dans la limite de sa cloison
+ * avant le contrôleur, ou est refusée (CloisonSatureeException : 503) sans toucher à MongoDB.
+ * La place est rendue à la fin de la requête ; pour un flux (StreamingResponseBody), à la fin de l'écriture
+ * asynchrone, sans ajuster la limite si l'endpoint est déclaré @Cloison(flux = true).
+ */
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMISSION = AdmissionInterceptor.class.getName() + ".admission";
+    private static final String LIMITE = AdmissionInterceptor.class.getName() + ".limite";
+    private static final String FLUX = AdmissionInterceptor.class.getName() + ".flux";
+
+    private final Map<Cloison.Type, LimiteAdaptative> limites;
+
+    public AdmissionInterceptor(Map<Cloison.Type, LimiteAdaptative> limites) {
+        this.limites = limites;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Reprise d'une requête asynchrone : elle a déjà sa place
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod methode)) {
+            return true;
+        }
+        Cloison cloison = AnnotatedElementUtils.findMergedAnnotation(methode.getMethod(), Cloison.class);
+        if (cloison == null) {
+            cloison = AnnotatedElementUtils.findMergedAnnotation(methode.getBeanType(), Cloison.class);
+        }
+        if (cloison == null) {
+            return true;
+        }
+        LimiteAdaptative limite = limites.get(cloison.value());
+        long admission = limite.entrer();
+        if (admission < 0) {
+            throw new CloisonSatureeException(cloison.value(), limite.getLimite());
+        }
+        request.setAttribute(ADMISSION, admission);
+        request.setAttribute(LIMITE, limite);
+        request.setAttribute(FLUX, cloison.flux());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // La place est conservée jusqu'à la fin de la réponse asynchrone (afterCompletion de la reprise)
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(LIMITE) instanceof LimiteAdaptative limite
+                && request.getAttribute(ADMISSION) instanceof Long admission) {
+            request.removeAttribute(LIMITE);
+            if (Boolean.TRUE.equals(request.getAttribute(FLUX))) {
+                limite.liberer();
+            } else {
+                limite.sortir(admission);
+            }
+        }
+    }
+}
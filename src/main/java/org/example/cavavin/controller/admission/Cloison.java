@@ -0,0 +1,32 @@
+package org.example.cavavin.controller.admission;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Cloison (bulkhead) d'admission d'un endpoint : chaque type a sa propre limite de requêtes simultanées
+ * (voir AdmissionConfig). Sur une méthode, remplace celle de la classe.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Cloison {
+
+    Type value();
+
+    /**
+     * Réponse en flux (StreamingResponseBody) : la place est tenue jusqu'au dernier octet, et sa durée dépend surtout
+     * du débit du client. Elle est rendue sans ajuster la limite, pour qu'un téléchargement lent ne la fasse pas chuter.
+     */
+    boolean flux() default false;
+
+    enum Type {
+        // Lectures et écritures ciblées (une bouteille, une page)
+        LEGERE,
+        // Parcours du catalogue, recherche, export, écritures en masse
+        LOURDE
+    }
+}
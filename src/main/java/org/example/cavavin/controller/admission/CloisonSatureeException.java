@@ -0,0 +1,8 @@
+package org.example.cavavin.controller.admission;
+
+// Levée quand la cloison d'admission d'un endpoint a atteint sa limite : le client doit réessayer plus tard
+public class CloisonSatureeException extends RuntimeException {
+    public CloisonSatureeException(Cloison.Type cloison, int limite) {
+        super(String.format("Service surchargé (cloison %s : %d requêtes en cours) : réessayer plus tard", cloison, limite));
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.cavavin.controller.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite adaptative de requêtes simultanées (AIMD), pilotée par la latence observée :
+ * <ul>
+ *     <li>une requête plus lente que la latence cible divise la limite par 1/facteur (au plus une fois par
+ *     « fenêtre » : les requêtes admises avant la dernière réduction ne la réduisent pas à nouveau) ;</li>
+ *     <li>une requête dans la cible l'augmente de 1/limite, soit +1 par fenêtre, tant que la limite est utilisée
+ *     au moins à moitié (une limite inutilisée n'a pas de raison de croître).</li>
+ * </ul>
+ * Au-delà de la limite, la requête est refusée immédiatement (pas de file d'attente) : la latence des requêtes admises
+ * reste proche de la cible, et les refus indiquent au client de réessayer plus tard.
+ * Métriques (tag cloison) : cavavin.admission.limite, cavavin.admission.encours, cavavin.admission.rejets.
+ */
+public class LimiteAdaptative {
+
+    private final int limiteMin;
+    private final int limiteMax;
+    private final long latenceCible;
+    private final double facteurReduction;
+
+    private final AtomicInteger enCours = new AtomicInteger();
+    private final Counter rejets;
+    // Modifiés sous verrou (ajuster), lus sans verrou à l'admission
+    private volatile double limite;
+    private long derniereReduction = Long.MIN_VALUE;
+
+    public LimiteAdaptative(String cloison, int limiteInitiale, int limiteMin, int limiteMax, Duration latenceCible,
+                            double facteurReduction, MeterRegistry meterRegistry) {
+        if (limiteMin < 1 || limiteMin > limiteMax || limiteInitiale < limiteMin || limiteInitiale > limiteMax) {
+            throw new IllegalArgumentException("Limites d'admission invalides pour la cloison " + cloison + " : "
+                    + limiteMin + " <= " + limiteInitiale + " <= " + limiteMax + " attendu");
+        }
+        this.limiteMin = limiteMin;
+        this.limiteMax = limiteMax;
+        this.latenceCible = latenceCible.toNanos();
+        this.facteurReduction = facteurReduction;
+        this.limite = limiteInitiale;
+        Gauge.builder("cavavin.admission.limite", this, LimiteAdaptative::getLimite)
+                .tag("cloison", cloison)
+                .register(meterRegistry);
+        Gauge.builder("cavavin.admission.encours", enCours, AtomicInteger::get)
+                .tag("cloison", cloison)
+                .register(meterRegistry);
+        this.rejets = meterRegistry.counter("cavavin.admission.rejets", "cloison", cloison);
+    }
+
+    /**
+     * Admet une requête si la limite le permet.
+     * @return l'instant d'admission (System.nanoTime()), à rendre à sortir() ; -1 si la requête est refusée.
+     */
+    public long entrer() {
+        while (true) {
+            int actuel = enCours.get();
+            if (actuel >= getLimite()) {
+                rejets.increment();
+                return -1;
+            }
+            if (enCours.compareAndSet(actuel, actuel + 1)) {
+                return System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Libère la place d'une requête admise et ajuste la limite selon sa latence.
+     */
+    public void sortir(long admission) {
+        int enCoursAvantSortie = enCours.getAndDecrement();
+        ajuster(admission, System.nanoTime() - admission, enCoursAvantSortie);
+    }
+
+    /**
+     * Libère la place d'une requête admise sans ajuster la limite : sa latence ne reflète pas la charge du serveur
+     * (réponse en flux, voir Cloison.flux()).
+     */
+    public void liberer() {
+        enCours.decrementAndGet();
+    }
+
+    private synchronized void ajuster(long admission, long latence, int enCoursAvantSortie) {
+        if (latence > latenceCible) {
+            if (admission > derniereReduction) {
+                limite = Math.max(limiteMin, limite * facteurReduction);
+                derniereReduction = System.nanoTime();
+            }
+        } else if (enCoursAvantSortie * 2 >= limite) {
+            limite = Math.min(limiteMax, limite + 1 / limite);
+        }
+    }
+
+    public int getLimite() {
+        return (int) limite;
+    }
+
+    public int getEnCours() {
+        return enCours.get();
+    }
+}
@@ -0,0 +1,227 @@
+package org.example.cavavin.controller.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cavavin.bo.BouteilleResume;
+import org.example.cavavin.service.BouteilleService;
+import org.example.cavavin.service.BouteillesModifieesEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache de la réponse JSON de GET /api/bouteilles/resume, conservée sérialisée et compressée (gzip) :
+ * un hit ne coûte ni requête MongoDB, ni sérialisation, ni compression.
+ * - invalidé par BouteillesModifieesEvent (écritures des services de cette instance) et, sur un replica set,
+ *   par le change stream de 'bouteilles' (voir ResumeChangeStreamConfig) ; le TTL borne sinon le retard
+ *   sur les écritures des autres instances ;
+ * - un seul chargement à la fois : les requêtes concurrentes d'un miss attendent le résultat au lieu de relancer la requête ;
+ * - une réponse compressée plus grande que la taille maximale n'est pas conservée (le contrôleur sert alors sans cache) ;
+ * - métriques : cavavin.cache.resume.requetes (hit/miss), .ratio, .invalidations, .octets.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class ResumeCache {
+
+    private final BouteilleService bouteilleService;
+    private final ObjectMapper objectMapper;
+    private final boolean actif;
+    private final Duration ttl;
+    private final DataSize tailleMax;
+
+    // Incrémentée à chaque invalidation : une entrée chargée avant la dernière invalidation n'est plus servie
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Entree entree;
+    private final ReentrantLock chargement = new ReentrantLock();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    @Autowired
+    public ResumeCache(BouteilleService bouteilleService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                       @Value("${cavavin.cache.resume.actif:true}") boolean actif,
+                       @Value("${cavavin.cache.resume.ttl:PT1M}") Duration ttl,
+                       @Value("${cavavin.cache.resume.taille-max:32MB}") DataSize tailleMax) {
+        this.bouteilleService = bouteilleService;
+        this.objectMapper = objectMapper;
+        this.actif = actif;
+        this.ttl = ttl;
+        this.tailleMax = tailleMax;
+        this.hits = meterRegistry.counter("cavavin.cache.resume.requetes", "resultat", "hit");
+        this.misses = meterRegistry.counter("cavavin.cache.resume.requetes", "resultat", "miss");
+        this.invalidations = meterRegistry.counter("cavavin.cache.resume.invalidations");
+        meterRegistry.gauge("cavavin.cache.resume.ratio", this, cache -> {
+            double total = cache.hits.count() + cache.misses.count();
+            return total == 0 ? Double.NaN : cache.hits.count() / total;
+        });
+        meterRegistry.gauge("cavavin.cache.resume.octets", this, cache -> {
+            Entree courante = cache.entree;
+            return courante == null || courante.gzip == null ? 0 : courante.gzip.length;
+        });
+    }
+
+    /**
+     * @return la réponse en cache (chargée si absente, expirée ou invalidée), ou vide si le cache est désactivé
+     * ou si la réponse dépasse la taille maximale.
+     */
+    public Optional<Reponse> obtenir() {
+        if (!actif) {
+            return Optional.empty();
+        }
+        Entree courante = entree;
+        if (valide(courante)) {
+            hits.increment();
+            return courante.reponse();
+        }
+        misses.increment();
+        chargement.lock();
+        try {
+            // Chargée entre-temps par une autre requête
+            courante = entree;
+            if (!valide(courante)) {
+                courante = charger(generation.get());
+                entree = courante;
+            }
+            return courante.reponse();
+        } finally {
+            chargement.unlock();
+        }
+    }
+
+    @EventListener
+    public void surModification(BouteillesModifieesEvent event) {
+        invalider();
+    }
+
+    public void invalider() {
+        generation.incrementAndGet();
+        entree = null;
+        invalidations.increment();
+    }
+
+    private boolean valide(Entree courante) {
+        return courante != null && courante.generation == generation.get()
+                && System.nanoTime() - courante.chargeeLe < ttl.toNanos();
+    }
+
+    /**
+     * Sérialise les résumés au fil du curseur directement dans le flux gzip : la liste complète n'est jamais
+     * matérialisée, et le chargement s'arrête dès que la taille maximale est dépassée.
+     */
+    private Entree charger(long generationLue) {
+        long debut = System.nanoTime();
+        ByteArrayOutputStream tampon = new ByteArrayOutputStream(64 * 1024);
+        try (Stream<BouteilleResume> resumes = bouteilleService.streamAllResume();
+             GZIPOutputStream gzip = new GZIPOutputStream(new SortieBornee(tampon, tailleMax.toBytes()), 64 * 1024);
+             JsonGenerator generateur = objectMapper.getFactory().createGenerator(gzip)) {
+            generateur.writeStartArray();
+            Iterator<BouteilleResume> iterateur = resumes.iterator();
+            while (iterateur.hasNext()) {
+                generateur.writeObject(iterateur.next());
+            }
+            generateur.writeEndArray();
+        } catch (TailleDepasseeException e) {
+            log.warn("Résumé des bouteilles non mis en cache : plus de {} compressé", tailleMax);
+            return new Entree(null, null, generationLue, debut);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] octets = tampon.toByteArray();
+        return new Entree(octets, "W/\"" + DigestUtils.md5DigestAsHex(octets) + "\"", generationLue, debut);
+    }
+
+    /**
+     * Réponse en cache : corps JSON compressé (gzip) et son ETag (faible : le corps décompressé a le même).
+     */
+    public static final class Reponse {
+        private final byte[] gzip;
+        private final String etag;
+
+        Reponse(byte[] gzip, String etag) {
+            this.gzip = gzip;
+            this.etag = etag;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+
+    private static final class Entree {
+        // null : réponse trop volumineuse pour le cache (retenu jusqu'à l'expiration, pour ne pas la recharger à chaque requête)
+        private final byte[] gzip;
+        private final String etag;
+        private final long generation;
+        private final long chargeeLe;
+
+        Entree(byte[] gzip, String etag, long generation, long chargeeLe) {
+            this.gzip = gzip;
+            this.etag = etag;
+            this.generation = generation;
+            this.chargeeLe = chargeeLe;
+        }
+
+        Optional<Reponse> reponse() {
+            return gzip == null ? Optional.empty() : Optional.of(new Reponse(gzip, etag));
+        }
+    }
+
+    private static final class TailleDepasseeException extends IOException {
+    }
+
+    // Sortie qui refuse de dépasser sa taille maximale
+    private static final class SortieBornee extends FilterOutputStream {
+        private final long tailleMax;
+        private long taille;
+
+        SortieBornee(OutputStream sortie, long tailleMax) {
+            super(sortie);
+            this.tailleMax = tailleMax;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            verifier(len);
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            verifier(1);
+            out.write(b);
+        }
+
+        private void verifier(int len) throws TailleDepasseeException {
+            taille += len;
+            if (taille > tailleMax) {
+                throw new TailleDepasseeException();
+            }
+        }
+    }
+}
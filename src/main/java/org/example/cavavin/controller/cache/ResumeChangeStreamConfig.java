@@ -0,0 +1,41 @@
+package org.example.cavavin.controller.cache;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.example.cavavin.bo.Bouteille;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListener;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+
+/**
+ * Invalidation du ResumeCache par le change stream de 'bouteilles' : les écritures des autres instances
+ * (et les écritures directes en base) sont vues sans attendre le TTL.
+ * Les change streams exigent un replica set (ou un cluster shardé) : activé par cavavin.cache.resume.change-stream=true.
+ */
+@Slf4j
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "cavavin.cache.resume.change-stream", havingValue = "true")
+public class ResumeChangeStreamConfig {
+
+    @Bean
+    public MessageListenerContainer resumeChangeStreamContainer(MongoTemplate mongoTemplate, ResumeCache resumeCache) {
+        // Conteneur SmartLifecycle : démarré et arrêté avec le contexte Spring ; une erreur du curseur est journalisée
+        DefaultMessageListenerContainer conteneur = new DefaultMessageListenerContainer(mongoTemplate,
+                new SimpleAsyncTaskExecutor("resume-change-stream-"),
+                erreur -> log.warn("Change stream de 'bouteilles' interrompu : {}", erreur.getMessage()));
+        MessageListener<ChangeStreamDocument<Document>, Document> invalidation = message -> resumeCache.invalider();
+        conteneur.register(ChangeStreamRequest.builder(invalidation)
+                .collection(mongoTemplate.getCollectionName(Bouteille.class))
+                .build(), Document.class);
+        return conteneur;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.cavavin.controller.dto;
+
+// Un avis à importer en masse : la bouteille cible et le commentaire
+public class AvisImportDTO {
+
+    private String bouteilleId;
+    private String commentaire;
+
+    public AvisImportDTO() {
+    }
+
+    public AvisImportDTO(String bouteilleId, String commentaire) {
+        this.bouteilleId = bouteilleId;
+        this.commentaire = commentaire;
+    }
+
+    public String getBouteilleId() {
+        return bouteilleId;
+    }
+
+    public void setBouteilleId(String bouteilleId) {
+        this.bouteilleId = bouteilleId;
+    }
+
+    public String getCommentaire() {
+        return commentaire;
+    }
+
+    public void setCommentaire(String commentaire) {
+        this.commentaire = commentaire;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.cavavin.controller.dto;
+
+// Résultat de l'import d'un avis, à la même position que l'avis dans la requête
+public class AvisImportResultatDTO {
+
+    public enum Statut {
+        CREE,
+        BOUTEILLE_INTROUVABLE,
+        ERREUR
+    }
+
+    private final int index;
+    private final String bouteilleId;
+    private final String avisId;
+    private final Statut statut;
+    private final String message;
+
+    public AvisImportResultatDTO(int index, String bouteilleId, String avisId, Statut statut, String message) {
+        this.index = index;
+        this.bouteilleId = bouteilleId;
+        this.avisId = avisId;
+        this.statut = statut;
+        this.message = message;
+    }
+
+    // --- Getters (Nécessaires pour la sérialisation par Jackson) ---
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getBouteilleId() {
+        return bouteilleId;
+    }
+
+    public String getAvisId() {
+        return avisId;
+    }
+
+    public Statut getStatut() {
+        return statut;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
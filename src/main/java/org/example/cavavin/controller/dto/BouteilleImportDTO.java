@@ -0,0 +1,42 @@
+package org.example.cavavin.controller.dto;
+
+// Une bouteille du fichier d'import (ligne CSV ou objet NDJSON) ; la région est désignée par son nom
+public class BouteilleImportDTO {
+
+    private String nom;
+    private Integer millesime;
+    private String couleur;
+    private String region;
+
+    public String getNom() {
+        return nom;
+    }
+
+    public void setNom(String nom) {
+        this.nom = nom;
+    }
+
+    public Integer getMillesime() {
+        return millesime;
+    }
+
+    public void setMillesime(Integer millesime) {
+        this.millesime = millesime;
+    }
+
+    public String getCouleur() {
+        return couleur;
+    }
+
+    public void setCouleur(String couleur) {
+        this.couleur = couleur;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+}
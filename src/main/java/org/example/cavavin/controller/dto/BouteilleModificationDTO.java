@@ -0,0 +1,42 @@
+package org.example.cavavin.controller.dto;
+
+// Corps de la requête de modification d'une bouteille : seuls les champs renseignés sont modifiés
+public class BouteilleModificationDTO {
+
+    private String nom;
+    private Integer millesime;
+    private String couleur;
+    private String regionId;
+
+    public String getNom() {
+        return nom;
+    }
+
+    public void setNom(String nom) {
+        this.nom = nom;
+    }
+
+    public Integer getMillesime() {
+        return millesime;
+    }
+
+    public void setMillesime(Integer millesime) {
+        this.millesime = millesime;
+    }
+
+    public String getCouleur() {
+        return couleur;
+    }
+
+    public void setCouleur(String couleur) {
+        this.couleur = couleur;
+    }
+
+    public String getRegionId() {
+        return regionId;
+    }
+
+    public void setRegionId(String regionId) {
+        this.regionId = regionId;
+    }
+}
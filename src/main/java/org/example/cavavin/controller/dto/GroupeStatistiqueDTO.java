@@ -0,0 +1,37 @@
+package org.example.cavavin.controller.dto;
+
+// Une ligne des statistiques : un groupe (région, couleur ou millésime) et ses décomptes
+public class GroupeStatistiqueDTO {
+
+    // ID de la région, libellé de la couleur ou millésime
+    private final String valeur;
+    // Nom de la région ; identique à la valeur pour la couleur et le millésime
+    private final String libelle;
+    private final long bouteilles;
+    private final long avis;
+
+    public GroupeStatistiqueDTO(String valeur, String libelle, long bouteilles, long avis) {
+        this.valeur = valeur;
+        this.libelle = libelle;
+        this.bouteilles = bouteilles;
+        this.avis = avis;
+    }
+
+    // --- Getters (Nécessaires pour la sérialisation par Jackson) ---
+
+    public String getValeur() {
+        return valeur;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    public long getBouteilles() {
+        return bouteilles;
+    }
+
+    public long getAvis() {
+        return avis;
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.cavavin.controller.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Rapport d'un import de bouteilles : compteurs et premières erreurs rencontrées
+public class ImportRapportDTO {
+
+    // Au-delà, les erreurs sont seulement comptées (le rapport garde une taille bornée)
+    private static final int DETAILS_ERREURS_MAX = 100;
+
+    private long lignesLues;
+    private long bouteillesInserees;
+    private long doublons;
+    private long erreurs;
+    private long regionsCreees;
+    private final List<String> detailsErreurs = new ArrayList<>();
+
+    public void ligneLue() {
+        lignesLues++;
+    }
+
+    public void bouteillesInserees(long nombre) {
+        bouteillesInserees += nombre;
+    }
+
+    public void doublon() {
+        doublons++;
+    }
+
+    public void regionCreee() {
+        regionsCreees++;
+    }
+
+    public void erreur(long ligne, String message) {
+        erreurs++;
+        if (detailsErreurs.size() < DETAILS_ERREURS_MAX) {
+            detailsErreurs.add("Ligne " + ligne + " : " + message);
+        }
+    }
+
+    // --- Getters (Nécessaires pour la sérialisation par Jackson) ---
+
+    public long getLignesLues() {
+        return lignesLues;
+    }
+
+    public long getBouteillesInserees() {
+        return bouteillesInserees;
+    }
+
+    public long getDoublons() {
+        return doublons;
+    }
+
+    public long getErreurs() {
+        return erreurs;
+    }
+
+    public long getRegionsCreees() {
+        return regionsCreees;
+    }
+
+    public List<String> getDetailsErreurs() {
+        return detailsErreurs;
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.cavavin.controller.dto;
+
+// Corps de la requête d'ajout d'un avis : seul le commentaire est fourni par le client
+public class NouvelAvisDTO {
+
+    private String commentaire;
+
+    public String getCommentaire() {
+        return commentaire;
+    }
+
+    public void setCommentaire(String commentaire) {
+        this.commentaire = commentaire;
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.cavavin.controller.dto;
+
+import java.util.List;
+
+// Page d'une pagination par curseur (keyset) : le client renvoie curseurSuivant pour obtenir la page suivante
+public class PageCurseurDTO<T> {
+
+    private final List<T> contenu;
+    private final String curseurSuivant;
+
+    /**
+     * @param contenu les éléments de la page.
+     * @param curseurSuivant le curseur opaque de la page suivante, ou null s'il s'agit de la dernière page.
+     */
+    public PageCurseurDTO(List<T> contenu, String curseurSuivant) {
+        this.contenu = contenu;
+        this.curseurSuivant = curseurSuivant;
+    }
+
+    // --- Getters (Nécessaires pour la sérialisation par Jackson) ---
+
+    public List<T> getContenu() {
+        return contenu;
+    }
+
+    public String getCurseurSuivant() {
+        return curseurSuivant;
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.cavavin.controller.dto;
+
+import java.util.List;
+
+// Réponse de GET /api/stats : nombre de bouteilles et d'avis par région, par couleur et par millésime
+public class StatistiquesDTO {
+
+    // Triées par nom de région
+    private final List<GroupeStatistiqueDTO> regions;
+    // Triées par libellé
+    private final List<GroupeStatistiqueDTO> couleurs;
+    // Triées par millésime croissant
+    private final List<GroupeStatistiqueDTO> millesimes;
+
+    public StatistiquesDTO(List<GroupeStatistiqueDTO> regions, List<GroupeStatistiqueDTO> couleurs,
+                           List<GroupeStatistiqueDTO> millesimes) {
+        this.regions = regions;
+        this.couleurs = couleurs;
+        this.millesimes = millesimes;
+    }
+
+    // --- Getters (Nécessaires pour la sérialisation par Jackson) ---
+
+    public List<GroupeStatistiqueDTO> getRegions() {
+        return regions;
+    }
+
+    public List<GroupeStatistiqueDTO> getCouleurs() {
+        return couleurs;
+    }
+
+    public List<GroupeStatistiqueDTO> getMillesimes() {
+        return millesimes;
+    }
+}
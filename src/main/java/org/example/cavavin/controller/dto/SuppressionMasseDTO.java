@@ -0,0 +1,63 @@
+package org.example.cavavin.controller.dto;
+
+import java.util.List;
+
+// Corps de la requête de suppression en masse : une liste d'IDs, ou les critères du filtre du catalogue
+public class SuppressionMasseDTO {
+
+    private List<String> ids;
+    private String couleur;
+    private Integer millesimeMin;
+    private Integer millesimeMax;
+    private String regionId;
+    // true : les avis sont supprimés par un balayage asynchrone des orphelins (très gros volumes)
+    private boolean asynchrone;
+
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<String> ids) {
+        this.ids = ids;
+    }
+
+    public String getCouleur() {
+        return couleur;
+    }
+
+    public void setCouleur(String couleur) {
+        this.couleur = couleur;
+    }
+
+    public Integer getMillesimeMin() {
+        return millesimeMin;
+    }
+
+    public void setMillesimeMin(Integer millesimeMin) {
+        this.millesimeMin = millesimeMin;
+    }
+
+    public Integer getMillesimeMax() {
+        return millesimeMax;
+    }
+
+    public void setMillesimeMax(Integer millesimeMax) {
+        this.millesimeMax = millesimeMax;
+    }
+
+    public String getRegionId() {
+        return regionId;
+    }
+
+    public void setRegionId(String regionId) {
+        this.regionId = regionId;
+    }
+
+    public boolean isAsynchrone() {
+        return asynchrone;
+    }
+
+    public void setAsynchrone(boolean asynchrone) {
+        this.asynchrone = asynchrone;
+    }
+}
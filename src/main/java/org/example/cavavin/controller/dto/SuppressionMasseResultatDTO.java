@@ -0,0 +1,30 @@
+package org.example.cavavin.controller.dto;
+
+// Résultat d'une suppression en masse
+public class SuppressionMasseResultatDTO {
+
+    private final long bouteillesSupprimees;
+    // null en mode asynchrone : les avis sont supprimés après la réponse, par le balayage des orphelins
+    private final Long avisSupprimes;
+    private final boolean balayageProgramme;
+
+    public SuppressionMasseResultatDTO(long bouteillesSupprimees, Long avisSupprimes, boolean balayageProgramme) {
+        this.bouteillesSupprimees = bouteillesSupprimees;
+        this.avisSupprimes = avisSupprimes;
+        this.balayageProgramme = balayageProgramme;
+    }
+
+    // --- Getters (Nécessaires pour la sérialisation par Jackson) ---
+
+    public long getBouteillesSupprimees() {
+        return bouteillesSupprimees;
+    }
+
+    public Long getAvisSupprimes() {
+        return avisSupprimes;
+    }
+
+    public boolean isBalayageProgramme() {
+        return balayageProgramme;
+    }
+}
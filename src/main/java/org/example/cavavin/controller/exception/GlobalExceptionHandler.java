@@ -1,7 +1,14 @@
 package org.example.cavavin.controller.exception;
 
+import org.example.cavavin.controller.admission.CloisonSatureeException;
+import org.example.cavavin.service.exception.EcritureAvisExpireeException;
+import org.example.cavavin.service.exception.FileAvisPleineException;
+import org.example.cavavin.service.exception.ParametreInvalideException;
 import org.example.cavavin.service.exception.ResourceNotFoundException;
+import org.example.cavavin.service.exception.VersionObsoleteException;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -47,5 +54,71 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorMessage, HttpStatus.CONFLICT);
     }
 
-    // Ajoutez d'autres gestionnaires ici pour les exceptions courantes (IllegalArgumentException -> 400 BAD REQUEST)
+    /**
+     * Intercepte la VersionObsoleteException (en-tête If-Match qui ne correspond plus à la version courante)
+     * et la mappe à 412 PRECONDITION FAILED : le client doit relire la ressource avant de la modifier.
+     */
+    @ExceptionHandler(VersionObsoleteException.class)
+    public ResponseEntity<String> handleVersionObsoleteException(VersionObsoleteException ex) {
+        System.err.println("Erreur 412 levée : " + ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Intercepte l'OptimisticLockingFailureException (écritures concurrentes persistantes malgré les nouvelles tentatives)
+     * et la mappe à 409 CONFLICT.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        System.err.println("Erreur 409 levée : " + ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Intercepte la ParametreInvalideException (paramètre invalide : limite, curseur, préfixe...) et la mappe à 400 BAD REQUEST.
+     * Les autres IllegalArgumentException (Spring, driver, erreurs de programmation) restent des erreurs serveur (500).
+     */
+    @ExceptionHandler(ParametreInvalideException.class)
+    public ResponseEntity<String> handleParametreInvalideException(ParametreInvalideException ex) {
+        System.err.println("Erreur 400 levée : " + ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Intercepte la FileAvisPleineException (écriture différée des avis saturée) et la mappe à 429 TOO MANY REQUESTS,
+     * avec un en-tête Retry-After : la file se vide au rythme des écritures groupées.
+     */
+    @ExceptionHandler(FileAvisPleineException.class)
+    public ResponseEntity<String> handleFileAvisPleineException(FileAvisPleineException ex) {
+        System.err.println("Erreur 429 levée : " + ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
+    /**
+     * Intercepte l'EcritureAvisExpireeException (écriture différée d'un avis non confirmée à temps)
+     * et la mappe à 503 SERVICE UNAVAILABLE, avec un en-tête Retry-After.
+     */
+    @ExceptionHandler(EcritureAvisExpireeException.class)
+    public ResponseEntity<String> handleEcritureAvisExpireeException(EcritureAvisExpireeException ex) {
+        System.err.println("Erreur 503 levée : " + ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
+    /**
+     * Intercepte la CloisonSatureeException (limite d'admission de l'endpoint atteinte, voir AdmissionConfig)
+     * et la mappe à 503 SERVICE UNAVAILABLE, avec un en-tête Retry-After : la requête est refusée avant tout accès à MongoDB.
+     */
+    @ExceptionHandler(CloisonSatureeException.class)
+    public ResponseEntity<String> handleCloisonSatureeException(CloisonSatureeException ex) {
+        System.err.println("Erreur 503 levée : " + ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
+    // Ajoutez d'autres gestionnaires ici pour les exceptions courantes
 }
\ No newline at end of file
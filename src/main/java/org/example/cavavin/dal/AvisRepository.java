@@ -5,7 +5,7 @@ import org.example.cavavin.bo.Bouteille;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.List;
 
-public interface AvisRepository extends MongoRepository<Avis,String> {
+public interface AvisRepository extends MongoRepository<Avis,String>, AvisRepositoryCustom {
 
     // Méthode de recherche pour trouver tous les avis d'une bouteille donnée.
     List<Avis> findByBouteille(Bouteille bouteille);
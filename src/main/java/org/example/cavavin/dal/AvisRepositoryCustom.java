@@ -0,0 +1,35 @@
+package org.example.cavavin.dal;
+
+import org.example.cavavin.bo.Avis;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fragment d'AvisRepository pour les écritures et suppressions en masse.
+ */
+public interface AvisRepositoryCustom {
+
+    /**
+     * Insère les avis en une écriture en masse non ordonnée (insertMany unordered) :
+     * une erreur sur un avis n'interrompt pas l'insertion des suivants.
+     * @return les erreurs indexées par position dans la liste (vide si tout a été inséré).
+     */
+    Map<Integer, ErreurEcriture> insertAllUnordered(List<Avis> avis);
+
+    /**
+     * Supprime les avis des bouteilles données par un seul deleteMany ($in sur le champ indexé 'bouteille').
+     * @return le nombre d'avis supprimés.
+     */
+    long supprimerParBouteilles(Collection<String> bouteilleIds);
+
+    /**
+     * Supprime les avis orphelins (dont la bouteille n'existe plus) d'un lot de l'index 'bouteille' : au plus
+     * {@code tailleLot} entrées après {@code apresBouteille}, dans l'ordre de l'index (lecture couverte, sans parcours
+     * de la collection), dont les bouteilles sont cherchées dans 'bouteilles' ; un deleteMany supprime les avis
+     * des bouteilles disparues. Chaque lot reprend après le précédent : un balayage complet lit l'index une seule fois.
+     * @param apresBouteille la dernière bouteille du lot précédent (LotOrphelins.getDerniereBouteille()), null pour le premier lot.
+     */
+    LotOrphelins supprimerOrphelins(String apresBouteille, int tailleLot);
+}
@@ -0,0 +1,89 @@
+package org.example.cavavin.dal;
+
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.cavavin.bo.Avis;
+import org.example.cavavin.bo.Bouteille;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class AvisRepositoryCustomImpl implements AvisRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public AvisRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Map<Integer, ErreurEcriture> insertAllUnordered(List<Avis> avis) {
+        Map<Integer, ErreurEcriture> erreurs = new HashMap<>();
+        if (avis.isEmpty()) {
+            return erreurs;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Avis.class)
+                    .insert(avis)
+                    .execute();
+        } catch (BulkOperationException e) {
+            // En mode non ordonné, le serveur a tenté toutes les insertions : seules celles en erreur sont listées
+            for (BulkWriteError erreur : e.getErrors()) {
+                erreurs.put(erreur.getIndex(), new ErreurEcriture(erreur.getIndex(), erreur.getCode(), erreur.getMessage()));
+            }
+        }
+        return erreurs;
+    }
+
+    @Override
+    public long supprimerParBouteilles(Collection<String> bouteilleIds) {
+        List<ObjectId> objectIds = bouteilleIds.stream().filter(ObjectId::isValid).map(ObjectId::new).toList();
+        if (objectIds.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.remove(Query.query(Criteria.where("bouteille").in(objectIds)), Avis.class).getDeletedCount();
+    }
+
+    @Override
+    public LotOrphelins supprimerOrphelins(String apresBouteille, int tailleLot) {
+        // 1. Au plus tailleLot entrées de l'index 'bouteille', à la suite du lot précédent : tri et borne sur le champ
+        // indexé, projection couverte par l'index (aucun avis lu)
+        Criteria suite = apresBouteille == null
+                ? Criteria.where("bouteille").ne(null)
+                : Criteria.where("bouteille").gt(new ObjectId(apresBouteille));
+        Query entrees = Query.query(suite).with(Sort.by("bouteille")).limit(tailleLot);
+        entrees.fields().include("bouteille").exclude("_id");
+        List<Document> references = mongoTemplate.find(entrees, Document.class, mongoTemplate.getCollectionName(Avis.class));
+        if (references.isEmpty()) {
+            return new LotOrphelins(null, 0);
+        }
+        Set<Object> bouteilles = new LinkedHashSet<>();
+        references.forEach(reference -> bouteilles.add(reference.get("bouteille")));
+
+        // 2. Celles qui n'existent plus (une requête $in sur l'_id de 'bouteilles'), puis leurs avis par un deleteMany
+        Query existantes = Query.query(Criteria.where("_id").in(bouteilles));
+        existantes.fields().include("_id");
+        mongoTemplate.find(existantes, Document.class, mongoTemplate.getCollectionName(Bouteille.class))
+                .forEach(existante -> bouteilles.remove(existante.get("_id")));
+        if (!bouteilles.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("bouteille").in(bouteilles)), Avis.class);
+        }
+
+        // Lot incomplet : l'index a été parcouru jusqu'au bout
+        Object derniere = references.get(references.size() - 1).get("bouteille");
+        return new LotOrphelins(references.size() < tailleLot ? null : derniere.toString(), bouteilles.size());
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.cavavin.dal;
+
+import org.example.cavavin.bo.Avis;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.example.cavavin.bo.BouteilleDetail;
+import org.example.cavavin.bo.BouteilleResume;
+import org.example.cavavin.bo.BouteillesFiltrees;
+import org.example.cavavin.bo.Couleur;
+import org.example.cavavin.bo.ResultatRecherche;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Fragment de BouteilleRepository pour les requêtes qui ne s'expriment pas
+ * avec une méthode dérivée ou une simple @Aggregation.
+ */
+public interface BouteilleRepositoryCustom {
+
+    /**
+     * Récupère les bouteilles rattachées à une région, la région étant résolue depuis le RegionCache
+     * (RegionResolutionListener) au lieu d'un $lookup (join) sur la collection 'regions' pour chaque bouteille.
+     * Cela évite le problème N+1 sans requête supplémentaire.
+     * Lue sur le primaire (et non selon LecturesLourdes) : le rechargement voit toutes les écritures qui le précèdent.
+     */
+    List<Bouteille> findAllWithRegionEagerly();
+
+    /**
+     * Optimisation: Récupère une liste des bouteilles en ne chargeant que les champs définis dans BouteilleResume.
+     * C'est une requête plus rapide car moins de données sont transférées.
+     * Les résumés sont lus directement depuis le BSON (BouteilleResumeReadConverter), sans proxy de projection.
+     * Lue sur le primaire (et non selon LecturesLourdes) : le rechargement voit toutes les écritures qui le précèdent.
+     */
+    List<BouteilleResume> findAllBy();
+
+    /**
+     * Même projection que findAllBy(), mais lue au fil de l'eau depuis un curseur MongoDB.
+     * Le Stream DOIT être fermé par l'appelant (try-with-resources) pour libérer le curseur.
+     */
+    Stream<BouteilleResume> streamAllBy();
+
+    /**
+     * Pagination par curseur (keyset) : retourne au plus {@code limit} bouteilles dont l'_id est
+     * strictement supérieur à {@code apresId}, triées par _id, avec leur région pré-chargée.
+     * Le coût d'une page ne dépend pas de sa profondeur (parcours de l'index _id) ; la région est
+     * résolue depuis le RegionCache plutôt que par un $lookup.
+     * @param apresId l'_id de la dernière bouteille de la page précédente, ou null pour la première page.
+     * @param limit le nombre maximum de bouteilles à retourner.
+     */
+    List<BouteilleAvecRegion> findPageWithRegionEagerly(String apresId, int limit);
+
+    /**
+     * Consultation détaillée en un seul aller-retour : la bouteille, sa région et ses {@code limiteAvis} avis
+     * les plus récents, joints par $lookup dans une même agrégation.
+     * @return la bouteille, ou vide si l'ID ne correspond à aucune bouteille (ou n'est pas un ObjectId).
+     */
+    Optional<BouteilleDetail> findDetailById(String id, int limiteAvis);
+
+    /**
+     * Export du catalogue complet : chaque bouteille avec sa région et TOUS ses avis (du plus ancien au plus récent),
+     * lue au fil de l'eau depuis le curseur d'une seule agrégation ($lookup sur 'regions' et 'avis'), par _id croissant.
+     * Une seule bouteille (et ses avis) est en mémoire à la fois ; le document joint reste soumis à la limite BSON de 16 Mo.
+     * Lue sur le primaire (et non selon LecturesLourdes) : le rechargement voit toutes les écritures qui le précèdent.
+     * Le Stream DOIT être fermé par l'appelant (try-with-resources) pour libérer le curseur.
+     */
+    Stream<BouteilleDetail> streamExport();
+
+    /**
+     * Tous les noms de bouteilles (projection sur 'nom'), lus au fil de l'eau : chargement des suggestions en mémoire.
+     * Lue sur le primaire (et non selon LecturesLourdes) : le rechargement voit toutes les écritures qui le précèdent.
+     * Le Stream DOIT être fermé par l'appelant (try-with-resources).
+     */
+    Stream<String> streamNoms();
+
+    /**
+     * Noms qui commencent par {@code prefixe}, sans tenir compte de la casse ni des accents, par ordre alphabétique :
+     * intervalle [prefixe, prefixe + U+FFFF) sur l'index 'nom_fr_primaire' (collation fr, niveau primaire).
+     * @return au plus {@code limite} noms.
+     */
+    List<String> suggererNoms(String prefixe, int limite);
+
+    /**
+     * Recherche plein texte sur le nom des bouteilles (index texte de 'bouteilles').
+     * @return au plus {@code limite} bouteilles, par score décroissant.
+     */
+    List<ResultatRecherche> rechercherParNom(String texte, int limite);
+
+    /**
+     * Recherche plein texte sur les commentaires (index texte de 'avis'). Les avis correspondants sont regroupés
+     * par bouteille dans l'agrégation (score = meilleur score de ses avis), puis la bouteille est jointe.
+     * @return au plus {@code limite} bouteilles, par score décroissant.
+     */
+    List<ResultatRecherche> rechercherParAvis(String texte, int limite);
+
+    /**
+     * Filtre du catalogue en une seule agrégation : $match sur les index composés de 'bouteilles', puis $facet
+     * produisant la page de bouteilles (triée par _id, région jointe), le total et les décomptes par couleur,
+     * par région et par décennie de millésime. Chaque critère est optionnel (null : non filtré).
+     */
+    BouteillesFiltrees filtrer(String couleur, Integer millesimeMin, Integer millesimeMax, String regionId,
+                               int debut, int taille);
+
+    /**
+     * @return les IDs d'au plus {@code limite} bouteilles correspondant au filtre du catalogue (projection sur _id).
+     */
+    List<String> findIdsParFiltre(String couleur, Integer millesimeMin, Integer millesimeMax, String regionId, int limite);
+
+    /**
+     * Suppression en masse par un seul deleteMany ($in sur _id), sans lecture préalable des bouteilles.
+     * Les avis ne sont pas supprimés (voir AvisRepository.supprimerParBouteilles).
+     * @return le nombre de bouteilles supprimées.
+     */
+    long supprimerParIds(Collection<String> ids);
+
+    /**
+     * Suppression en masse des bouteilles correspondant au filtre du catalogue (critères non nuls), par un seul deleteMany.
+     * Les avis ne sont pas supprimés (voir AvisRepository.supprimerOrphelins).
+     * @return le nombre de bouteilles supprimées.
+     */
+    long supprimerParFiltre(String couleur, Integer millesimeMin, Integer millesimeMax, String regionId);
+
+    /**
+     * Modification partielle d'une bouteille par un seul findAndModify ($set des champs non nuls, $inc de la version).
+     * Avec une version attendue, la mise à jour est conditionnée par la version courante (verrouillage optimiste) :
+     * une écriture concurrente intervenue depuis la lecture du client empêche la modification, sans transaction.
+     * @param versionAttendue la version lue par le client, ou null pour une modification inconditionnelle.
+     * @return la bouteille AVANT modification, réduite à sa version, à son nom (suggestions) et aux champs des statistiques
+     * (région, couleur, millésime, nombre d'avis), ou vide si aucune bouteille ne correspond (ID inconnu ou version obsolète).
+     */
+    Optional<Bouteille> modifier(String id, Long versionAttendue, String nom, Integer millesime, Couleur couleur, String regionId);
+
+    /**
+     * Ajoute l'ID d'un avis à la liste 'avis' de la bouteille par un $push ciblé, et met à jour les champs
+     * dénormalisés dans la même écriture : $inc de 'nbAvis' et $push ($slice) dans 'derniersAvis'.
+     * Une seule écriture atomique sur un document : pas de lecture préalable, pas de transaction,
+     * et deux ajouts concurrents sur la même bouteille ne peuvent pas s'écraser. La version est incrémentée.
+     * @param avis l'avis à ajouter (son ID doit être renseigné).
+     * @return la bouteille mise à jour, réduite aux champs des statistiques (région, couleur, millésime),
+     * ou vide si elle n'existe pas.
+     */
+    Optional<Bouteille> pushAvis(String bouteilleId, Avis avis);
+
+    /**
+     * Variante en masse de pushAvis() : une seule mise à jour ($push $each, $inc) par bouteille,
+     * envoyées dans une écriture en masse non ordonnée.
+     * @param avisParBouteille les avis à ajouter (IDs renseignés), regroupés par ID de bouteille.
+     */
+    void pushAvisGroupes(Map<String, List<Avis>> avisParBouteille);
+
+    /**
+     * Compensation de pushAvis() et pushAvisGroupes() quand l'insertion des avis échoue : retire leurs IDs de 'avis'
+     * et de 'derniersAvis' ($pullAll, $pull) et décrémente 'nbAvis', en une mise à jour par bouteille.
+     * @param avisParBouteille les avis non insérés, regroupés par ID de bouteille.
+     */
+    void retirerAvisGroupes(Map<String, List<Avis>> avisParBouteille);
+
+    /**
+     * Incrémente la version des bouteilles une fois leurs avis insérés ($inc, une seule mise à jour multiple) :
+     * la version (ETag) lue entre pushAvis() et l'insertion désigne une bouteille sans l'avis, et ne doit pas rester valide.
+     */
+    void incrementerVersions(Collection<String> bouteilleIds);
+
+    /**
+     * Migration des bouteilles écrites avant les champs dénormalisés 'nbAvis' et 'derniersAvis' : les deux champs
+     * sont calculés depuis la liste 'avis', avec les commentaires des derniers avis lus dans la collection 'avis'
+     * (par lots de bouteilles). Idempotente : seules les bouteilles sans 'nbAvis' sont reprises.
+     * @return le nombre de bouteilles complétées.
+     */
+    long completerChampsAvis();
+
+    /**
+     * @return parmi les IDs donnés, les bouteilles existantes réduites aux champs des statistiques
+     * (une seule requête $in, projection sur l'_id, la région, la couleur et le millésime).
+     */
+    List<Bouteille> findChampsStatistiques(Collection<String> ids);
+
+    /**
+     * Insère les bouteilles en une écriture en masse non ordonnée : un doublon sur l'index unique 'nom'
+     * n'interrompt pas l'insertion des suivantes.
+     * @return les erreurs indexées par position dans la liste (vide si tout a été inséré).
+     */
+    Map<Integer, ErreurEcriture> insertAllUnordered(List<Bouteille> bouteilles);
+}
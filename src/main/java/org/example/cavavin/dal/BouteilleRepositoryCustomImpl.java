@@ -0,0 +1,517 @@
+package org.example.cavavin.dal;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.cavavin.bo.Avis;
+import org.example.cavavin.bo.AvisResume;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.example.cavavin.bo.BouteilleDetail;
+import org.example.cavavin.bo.BouteilleResume;
+import org.example.cavavin.bo.BouteillesFiltrees;
+import org.example.cavavin.bo.Couleur;
+import org.example.cavavin.bo.ResultatRecherche;
+import org.example.cavavin.dal.config.LecturesLourdes;
+import org.example.cavavin.dal.convert.BouteilleResumeReadConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.LookupOperation;
+import org.springframework.data.mongodb.core.aggregation.VariableOperators;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Implémentation du fragment : Spring Data la détecte grâce au suffixe "Impl"
+public class BouteilleRepositoryCustomImpl implements BouteilleRepositoryCustom {
+
+    // Champs qui déterminent les groupes d'une bouteille dans les statistiques (voir StatistiqueRepository)
+    private static final List<String> CHAMPS_STATISTIQUES = List.of("region_id", "couleur", "millesime", "nbAvis");
+
+    // Collation de l'index 'nom_fr_primaire' (voir Bouteille) : casse et accents ignorés
+    static final Collation COLLATION_NOMS = Collation.of("fr").strength(Collation.ComparisonLevel.primary());
+
+    // Bouteilles par lot du curseur de l'export
+    private static final int TAILLE_LOT_EXPORT = 100;
+
+    // Bouteilles par lot de la migration des champs dénormalisés des avis
+    private static final int TAILLE_LOT_MIGRATION = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final LecturesLourdes lecturesLourdes;
+
+    @Autowired
+    public BouteilleRepositoryCustomImpl(MongoTemplate mongoTemplate, LecturesLourdes lecturesLourdes) {
+        this.mongoTemplate = mongoTemplate;
+        this.lecturesLourdes = lecturesLourdes;
+    }
+
+    @Override
+    public List<Bouteille> findAllWithRegionEagerly() {
+        // Comme l'ancien $lookup + $unwind, on ne retourne que les bouteilles ayant une région
+        Query query = Query.query(Criteria.where("region_id").ne(null));
+        return mongoTemplate.find(lecturesLourdes.appliquer(query), Bouteille.class);
+    }
+
+    @Override
+    public List<BouteilleResume> findAllBy() {
+        return mongoTemplate.find(lecturesLourdes.appliquer(requeteResume()), BouteilleResume.class,
+                mongoTemplate.getCollectionName(Bouteille.class));
+    }
+
+    @Override
+    public Stream<BouteilleResume> streamAllBy() {
+        return mongoTemplate.stream(lecturesLourdes.appliquer(requeteResume()), BouteilleResume.class,
+                mongoTemplate.getCollectionName(Bouteille.class));
+    }
+
+    /**
+     * Requête des résumés, partagée avec la variante réactive : seuls les champs lus par BouteilleResumeReadConverter
+     * sont transférés, et convertis directement en BouteilleResume (ni proxy de projection, ni DTO intermédiaire).
+     */
+    static Query requeteResume() {
+        Query query = new Query();
+        BouteilleResumeReadConverter.CHAMPS.forEach(query.fields()::include);
+        return query;
+    }
+
+    @Override
+    public List<BouteilleAvecRegion> findPageWithRegionEagerly(String apresId, int limit) {
+        // La région est résolue depuis le RegionCache (RegionResolutionListener) : pas de $lookup
+        return mongoTemplate.aggregate(pagePipeline(apresId, limit, false),
+                        mongoTemplate.getCollectionName(Bouteille.class), BouteilleAvecRegion.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public Optional<BouteilleDetail> findDetailById(String id, int limiteAvis) {
+        if (!ObjectId.isValid(id)) {
+            return Optional.empty();
+        }
+        Aggregation pipeline = Aggregation.newAggregation(
+                // 1. Une seule bouteille (index _id)
+                Aggregation.match(Criteria.where("_id").is(new ObjectId(id))),
+                // Résumé des listes, redondant avec la page d'avis : non transféré
+                Aggregation.project().andExclude("derniersAvis"),
+                // 2. Région jointe dans la même requête (plutôt que le RegionCache) : le coût reste d'une requête même en cas de miss
+                Aggregation.lookup("regions", "region_id", "_id", "region"),
+                Aggregation.unwind("region", true),
+                // 3. Page d'avis : jointure sur le champ indexé 'bouteille' de la collection 'avis', bornée dans le sous-pipeline.
+                // Le résultat remplace la liste des IDs 'avis', qui n'est donc pas transférée.
+                LookupOperation.newLookup().from("avis")
+                        .let(VariableOperators.Let.ExpressionVariable.newVariable("bouteilleId").forField("_id"))
+                        .pipeline(context -> new Document("$match", new Document("$expr",
+                                        new Document("$eq", List.of("$bouteille", "$$bouteilleId")))),
+                                Aggregation.sort(Sort.Direction.DESC, "_id"),
+                                Aggregation.limit(limiteAvis),
+                                Aggregation.project("commentaire"))
+                        .as("avis"));
+
+        return Optional.ofNullable(mongoTemplate.aggregate(pipeline,
+                mongoTemplate.getCollectionName(Bouteille.class), BouteilleDetail.class).getUniqueMappedResult());
+    }
+
+    @Override
+    public Stream<BouteilleDetail> streamExport() {
+        Aggregation pipeline = Aggregation.newAggregation(
+                // 1. Parcours de l'index _id : ordre stable, sans tri en mémoire
+                Aggregation.sort(Sort.Direction.ASC, "_id"),
+                // Les IDs d'avis sont remplacés par les avis joints, les derniers avis en sont un sous-ensemble
+                Aggregation.project().andExclude("avis", "derniersAvis"),
+                // 2. Région jointe dans la même requête
+                Aggregation.lookup("regions", "region_id", "_id", "region"),
+                Aggregation.unwind("region", true),
+                // 3. Tous les avis de la bouteille, par le champ indexé 'bouteille'
+                LookupOperation.newLookup().from("avis")
+                        .let(VariableOperators.Let.ExpressionVariable.newVariable("bouteilleId").forField("_id"))
+                        .pipeline(context -> new Document("$match", new Document("$expr",
+                                        new Document("$eq", List.of("$bouteille", "$$bouteilleId")))),
+                                Aggregation.sort(Sort.Direction.ASC, "_id"),
+                                Aggregation.project("commentaire"))
+                        .as("avis"))
+                // Lots de curseur modestes : chaque document porte tous les avis de sa bouteille
+                .withOptions(lecturesLourdes.appliquer(AggregationOptions.builder().cursorBatchSize(TAILLE_LOT_EXPORT)).build());
+        return mongoTemplate.aggregateStream(pipeline, mongoTemplate.getCollectionName(Bouteille.class), BouteilleDetail.class);
+    }
+
+    @Override
+    public Stream<String> streamNoms() {
+        // Toujours sur le primaire (quelle que soit la préférence du client) : une écriture qui précède le rechargement
+        // doit y figurer, ce qu'un secondaire en retard ne garantit pas
+        Query query = new Query().withReadPreference(ReadPreference.primary());
+        query.fields().include("nom").exclude("_id");
+        return mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Bouteille.class))
+                .map(document -> document.getString("nom"));
+    }
+
+    @Override
+    public List<String> suggererNoms(String prefixe, int limite) {
+        // Au niveau primaire, U+FFFF est la plus grande clé de tri (CLDR) : borne supérieure de tous les noms du préfixe
+        Query query = Query.query(Criteria.where("nom").gte(prefixe).lt(prefixe + '\uffff'))
+                .collation(COLLATION_NOMS)
+                .with(Sort.by("nom"))
+                .limit(limite);
+        query.fields().include("nom").exclude("_id");
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Bouteille.class)).stream()
+                .map(document -> document.getString("nom"))
+                .toList();
+    }
+
+    @Override
+    public List<ResultatRecherche> rechercherParNom(String texte, int limite) {
+        // $text utilise l'index texte : le coût dépend du nombre de correspondances, pas de la taille du catalogue
+        Aggregation pipeline = Aggregation.newAggregation(
+                Aggregation.match(TextCriteria.forDefaultLanguage().matching(texte)),
+                context -> new Document("$addFields", new Document("score", new Document("$meta", "textScore"))),
+                Aggregation.sort(Sort.by(Sort.Order.desc("score"), Sort.Order.asc("_id"))),
+                Aggregation.limit(limite),
+                // La liste des IDs d'avis n'est pas utile au résultat
+                Aggregation.project().andExclude("avis"));
+        return mongoTemplate.aggregate(pipeline, mongoTemplate.getCollectionName(Bouteille.class), ResultatRecherche.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public List<ResultatRecherche> rechercherParAvis(String texte, int limite) {
+        Aggregation pipeline = Aggregation.newAggregation(
+                Aggregation.match(TextCriteria.forDefaultLanguage().matching(texte)),
+                // 1. Regroupement par bouteille : meilleur score et nombre d'avis correspondants
+                context -> new Document("$group", new Document("_id", "$bouteille")
+                        .append("score", new Document("$max", new Document("$meta", "textScore")))
+                        .append("avisCorrespondants", new Document("$sum", 1))),
+                Aggregation.sort(Sort.by(Sort.Order.desc("score"), Sort.Order.asc("_id"))),
+                Aggregation.limit(limite),
+                // 2. Jointure des seules bouteilles retenues (index _id), puis fusion avec le score
+                Aggregation.lookup("bouteilles", "_id", "_id", "bouteille"),
+                Aggregation.unwind("bouteille"),
+                context -> new Document("$replaceRoot", new Document("newRoot", new Document("$mergeObjects", List.of(
+                        "$bouteille",
+                        new Document("score", "$score").append("avisCorrespondants", "$avisCorrespondants"))))),
+                Aggregation.project().andExclude("avis"));
+        return mongoTemplate.aggregate(pipeline, mongoTemplate.getCollectionName(Avis.class), ResultatRecherche.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public BouteillesFiltrees filtrer(String couleur, Integer millesimeMin, Integer millesimeMax, String regionId,
+                                      int debut, int taille) {
+        // 1. Filtre (index composés) : seules les bouteilles retenues entrent dans le $facet
+        Criteria criteres = critereFiltre(couleur, millesimeMin, millesimeMax, regionId);
+
+        // 2. Page et facettes en une passe sur les bouteilles filtrées
+        Document facettes = new Document()
+                .append("contenu", List.of(
+                        new Document("$sort", new Document("_id", 1)),
+                        new Document("$skip", debut),
+                        new Document("$limit", taille),
+                        new Document("$project", new Document("avis", 0)),
+                        new Document("$lookup", new Document("from", "regions").append("localField", "region_id")
+                                .append("foreignField", "_id").append("as", "region")),
+                        new Document("$unwind", new Document("path", "$region").append("preserveNullAndEmptyArrays", true))))
+                .append("total", List.of(new Document("$count", "nombre")))
+                .append("couleurs", List.of(
+                        new Document("$sortByCount", "$couleur.libelle"),
+                        new Document("$project", new Document("_id", 0).append("valeur", "$_id")
+                                .append("libelle", "$_id").append("nombre", "$count"))))
+                .append("regions", List.of(
+                        new Document("$sortByCount", "$region_id"),
+                        // Jointure des seules régions présentes (quelques dizaines au plus)
+                        new Document("$lookup", new Document("from", "regions").append("localField", "_id")
+                                .append("foreignField", "_id").append("as", "region")),
+                        new Document("$project", new Document("_id", 0).append("valeur", "$_id")
+                                .append("libelle", new Document("$arrayElemAt", List.of("$region.nomRegion", 0)))
+                                .append("nombre", "$count"))))
+                .append("millesimes", List.of(
+                        new Document("$match", new Document("millesime", new Document("$ne", null))),
+                        new Document("$group", new Document("_id", new Document("$subtract",
+                                List.of("$millesime", new Document("$mod", List.of("$millesime", 10)))))
+                                .append("nombre", new Document("$sum", 1))),
+                        new Document("$sort", new Document("_id", 1)),
+                        new Document("$project", new Document("_id", 0).append("decennie", "$_id").append("nombre", 1))));
+
+        Aggregation pipeline = Aggregation.newAggregation(
+                Aggregation.match(criteres),
+                context -> new Document("$facet", facettes),
+                // Le total est un tableau d'un élément (vide si aucune bouteille)
+                context -> new Document("$addFields", new Document("total",
+                        new Document("$ifNull", List.of(new Document("$arrayElemAt", List.of("$total.nombre", 0)), 0)))));
+
+        return mongoTemplate.aggregate(pipeline, mongoTemplate.getCollectionName(Bouteille.class), BouteillesFiltrees.class)
+                .getUniqueMappedResult();
+    }
+
+    /**
+     * Critères du filtre du catalogue (null : non filtré), partagés par filtrer() et la suppression en masse.
+     */
+    static Criteria critereFiltre(String couleur, Integer millesimeMin, Integer millesimeMax, String regionId) {
+        Criteria criteres = new Criteria();
+        if (couleur != null) {
+            criteres.and("couleur.libelle").is(couleur);
+        }
+        if (regionId != null) {
+            criteres.and("region_id").is(new ObjectId(regionId));
+        }
+        if (millesimeMin != null || millesimeMax != null) {
+            Criteria millesime = criteres.and("millesime");
+            if (millesimeMin != null) {
+                millesime.gte(millesimeMin);
+            }
+            if (millesimeMax != null) {
+                millesime.lte(millesimeMax);
+            }
+        }
+        return criteres;
+    }
+
+    @Override
+    public List<String> findIdsParFiltre(String couleur, Integer millesimeMin, Integer millesimeMax, String regionId,
+                                         int limite) {
+        Query query = Query.query(critereFiltre(couleur, millesimeMin, millesimeMax, regionId)).limit(limite);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Bouteille.class)).stream()
+                .map(document -> document.getObjectId("_id").toHexString())
+                .toList();
+    }
+
+    @Override
+    public long supprimerParIds(Collection<String> ids) {
+        List<ObjectId> objectIds = ids.stream().filter(ObjectId::isValid).map(ObjectId::new).toList();
+        if (objectIds.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").in(objectIds)), Bouteille.class).getDeletedCount();
+    }
+
+    @Override
+    public long supprimerParFiltre(String couleur, Integer millesimeMin, Integer millesimeMax, String regionId) {
+        return mongoTemplate.remove(Query.query(critereFiltre(couleur, millesimeMin, millesimeMax, regionId)), Bouteille.class)
+                .getDeletedCount();
+    }
+
+    @Override
+    public Optional<Bouteille> modifier(String id, Long versionAttendue, String nom, Integer millesime, Couleur couleur,
+                                   String regionId) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        if (versionAttendue != null) {
+            query.addCriteria(critereVersion(versionAttendue));
+        }
+        query.fields().include("version", "nom");
+        CHAMPS_STATISTIQUES.forEach(query.fields()::include);
+
+        Update update = new Update().inc("version", 1);
+        if (nom != null) {
+            update.set("nom", nom);
+        }
+        if (millesime != null) {
+            update.set("millesime", millesime);
+        }
+        if (couleur != null) {
+            update.set("couleur", couleur);
+        }
+        if (regionId != null) {
+            update.set("region_id", new ObjectId(regionId));
+        }
+        // État avant modification : les statistiques retirent la bouteille de ses anciens groupes
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false),
+                Bouteille.class));
+    }
+
+    /**
+     * Critère sur la version : les bouteilles écrites sans version (import en masse antérieur au verrouillage optimiste)
+     * sont en version 0, comme une bouteille qui vient d'être insérée.
+     */
+    static Criteria critereVersion(long version) {
+        return version == 0
+                ? Criteria.where("version").in(0L, null)
+                : Criteria.where("version").is(version);
+    }
+
+    @Override
+    public Optional<Bouteille> pushAvis(String bouteilleId, Avis avis) {
+        // findAndModify plutôt qu'updateFirst : toujours une seule écriture, qui retourne aussi les groupes de la bouteille
+        Query query = Query.query(Criteria.where("_id").is(bouteilleId));
+        CHAMPS_STATISTIQUES.forEach(query.fields()::include);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, ajoutAvis(List.of(avis)), Bouteille.class));
+    }
+
+    @Override
+    public void pushAvisGroupes(Map<String, List<Avis>> avisParBouteille) {
+        if (avisParBouteille.isEmpty()) {
+            return;
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Bouteille.class);
+        avisParBouteille.forEach((bouteilleId, avis) -> operations.updateOne(
+                Query.query(Criteria.where("_id").is(bouteilleId)), ajoutAvis(avis)));
+        operations.execute();
+    }
+
+    /**
+     * Mise à jour d'ajout d'avis, partagée avec la variante réactive :
+     * références ($push), compteur ($inc), derniers avis ($push $each + $slice négatif : on garde les plus récents) et version.
+     */
+    static Update ajoutAvis(List<Avis> avis) {
+        Update update = new Update();
+        update.push("avis").each(avis.stream().map(a -> new ObjectId(a.getId())).toArray());
+        update.inc("nbAvis", avis.size());
+        // Explicite : les écritures en masse (bulkOps) n'incrémentent pas la version d'elles-mêmes
+        update.inc("version", 1);
+        update.push("derniersAvis").slice(-Bouteille.NB_DERNIERS_AVIS).each(avis.stream().map(AvisResume::de).toArray());
+        return update;
+    }
+
+    @Override
+    public void retirerAvisGroupes(Map<String, List<Avis>> avisParBouteille) {
+        if (avisParBouteille.isEmpty()) {
+            return;
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Bouteille.class);
+        avisParBouteille.forEach((bouteilleId, avis) -> operations.updateOne(
+                Query.query(Criteria.where("_id").is(bouteilleId)), retraitAvis(avis)));
+        operations.execute();
+    }
+
+    @Override
+    public void incrementerVersions(Collection<String> bouteilleIds) {
+        if (bouteilleIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(bouteilleIds)),
+                new Update().inc("version", 1), Bouteille.class);
+    }
+
+    /**
+     * Mise à jour inverse de ajoutAvis(), partagée avec la variante réactive : compense un ajout dont l'insertion
+     * des avis a échoué. 'derniersAvis' compte alors un avis de moins, jusqu'à l'ajout suivant.
+     */
+    static Update retraitAvis(List<Avis> avis) {
+        List<ObjectId> ids = avis.stream().map(a -> new ObjectId(a.getId())).toList();
+        Update update = new Update();
+        update.pullAll("avis", ids.toArray());
+        update.inc("nbAvis", -avis.size());
+        update.inc("version", 1);
+        update.pull("derniersAvis", new Document("_id", new Document("$in", ids)));
+        return update;
+    }
+
+    @Override
+    public long completerChampsAvis() {
+        // Documents bruts : seule la liste 'avis' des bouteilles sans 'nbAvis' est lue, sans conversion
+        Query aMigrer = Query.query(Criteria.where("nbAvis").exists(false));
+        aMigrer.fields().include("avis");
+        List<Document> lot = new ArrayList<>(TAILLE_LOT_MIGRATION);
+        long completees = 0;
+        try (Stream<Document> bouteilles = mongoTemplate.stream(aMigrer, Document.class, mongoTemplate.getCollectionName(Bouteille.class))) {
+            for (Document bouteille : (Iterable<Document>) bouteilles::iterator) {
+                lot.add(bouteille);
+                if (lot.size() == TAILLE_LOT_MIGRATION) {
+                    completees += completerChampsAvis(lot);
+                    lot.clear();
+                }
+            }
+        }
+        return completees + completerChampsAvis(lot);
+    }
+
+    // Un lot de la migration : commentaires des derniers avis lus en une requête, puis une mise à jour par bouteille
+    private long completerChampsAvis(List<Document> bouteilles) {
+        if (bouteilles.isEmpty()) {
+            return 0;
+        }
+        Map<Object, List<ObjectId>> derniersParBouteille = new HashMap<>();
+        Map<Object, Integer> nbAvisParBouteille = new HashMap<>();
+        for (Document bouteille : bouteilles) {
+            List<ObjectId> avis = bouteille.getList("avis", ObjectId.class, List.of());
+            nbAvisParBouteille.put(bouteille.get("_id"), avis.size());
+            derniersParBouteille.put(bouteille.get("_id"), avis.subList(Math.max(0, avis.size() - Bouteille.NB_DERNIERS_AVIS), avis.size()));
+        }
+        Query query = Query.query(Criteria.where("_id").in(derniersParBouteille.values().stream().flatMap(List::stream).toList()));
+        query.fields().include("commentaire");
+        Map<ObjectId, String> commentaires = new HashMap<>();
+        mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Avis.class))
+                .forEach(avis -> commentaires.put(avis.getObjectId("_id"), avis.getString("commentaire")));
+
+        // Même filtre que la lecture : une bouteille complétée entre-temps (par un ajout d'avis) n'est pas écrasée.
+        // Un avis introuvable (supprimé) garde sa place dans le résumé, sans commentaire.
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Bouteille.class);
+        derniersParBouteille.forEach((id, derniers) -> operations.updateOne(
+                Query.query(Criteria.where("_id").is(id).and("nbAvis").exists(false)),
+                new Update()
+                        .set("nbAvis", nbAvisParBouteille.get(id))
+                        .set("derniersAvis", derniers.stream()
+                                .map(avisId -> new AvisResume(avisId.toHexString(), commentaires.get(avisId)))
+                                .toList())));
+        return operations.execute().getModifiedCount();
+    }
+
+    @Override
+    public List<Bouteille> findChampsStatistiques(Collection<String> ids) {
+        // Un ID qui n'est pas un ObjectId ne peut correspondre à aucune bouteille
+        List<ObjectId> objectIds = ids.stream().filter(ObjectId::isValid).map(ObjectId::new).toList();
+        Query query = Query.query(Criteria.where("_id").in(objectIds));
+        CHAMPS_STATISTIQUES.forEach(query.fields()::include);
+        return mongoTemplate.find(query, Bouteille.class);
+    }
+
+    @Override
+    public Map<Integer, ErreurEcriture> insertAllUnordered(List<Bouteille> bouteilles) {
+        Map<Integer, ErreurEcriture> erreurs = new HashMap<>();
+        if (bouteilles.isEmpty()) {
+            return erreurs;
+        }
+        // L'insertion en masse n'initialise pas la version (contrairement à insert/save)
+        bouteilles.stream().filter(bouteille -> bouteille.getVersion() == null).forEach(bouteille -> bouteille.setVersion(0L));
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Bouteille.class)
+                    .insert(bouteilles)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError erreur : e.getErrors()) {
+                erreurs.put(erreur.getIndex(), new ErreurEcriture(erreur.getIndex(), erreur.getCode(), erreur.getMessage()));
+            }
+        }
+        return erreurs;
+    }
+
+    /**
+     * Pipeline de la pagination par curseur, partagé avec la variante réactive.
+     * @param joindreRegion true pour joindre la région par $lookup, false pour la laisser au RegionCache.
+     */
+    static Aggregation pagePipeline(String apresId, int limit, boolean joindreRegion) {
+        List<AggregationOperation> etapes = new ArrayList<>();
+
+        // 1. Seek : on reprend juste après la dernière bouteille vue (utilise l'index _id)
+        if (apresId != null) {
+            etapes.add(Aggregation.match(Criteria.where("_id").gt(new ObjectId(apresId))));
+        }
+        // 2. Tri et limite AVANT la jointure : le $lookup ne porte que sur la page
+        etapes.add(Aggregation.sort(Sort.Direction.ASC, "_id"));
+        etapes.add(Aggregation.limit(limit));
+        if (joindreRegion) {
+            // 3. Jointure avec 'regions'. Le résultat est placé dans 'region' (et non 'region_id')
+            // pour être lu comme un sous-document par BouteilleAvecRegion.
+            etapes.add(Aggregation.lookup("regions", "region_id", "_id", "region"));
+            // 4. Unwind en conservant les bouteilles sans région, sinon une page pourrait être incomplète
+            etapes.add(Aggregation.unwind("region", true));
+        }
+
+        return Aggregation.newAggregation(etapes);
+    }
+}
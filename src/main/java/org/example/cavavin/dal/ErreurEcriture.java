@@ -0,0 +1,40 @@
+package org.example.cavavin.dal;
+
+/**
+ * Erreur d'un document lors d'une écriture en masse non ordonnée.
+ */
+public class ErreurEcriture {
+
+    private static final int CODE_CLE_DUPLIQUEE = 11000;
+
+    private final int index;
+    private final int code;
+    private final String message;
+
+    /**
+     * @param index la position du document dans la liste envoyée.
+     * @param code le code d'erreur MongoDB (11000 pour une violation d'index unique).
+     * @param message le message du serveur.
+     */
+    public ErreurEcriture(int index, int code, String message) {
+        this.index = index;
+        this.code = code;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isDoublon() {
+        return code == CODE_CLE_DUPLIQUEE;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.cavavin.dal;
+
+/**
+ * Résultat d'un lot du balayage des avis orphelins (voir AvisRepositoryCustom.supprimerOrphelins).
+ */
+public class LotOrphelins {
+
+    private final String derniereBouteille;
+    private final int bouteillesDisparues;
+
+    /**
+     * @param derniereBouteille la dernière bouteille parcourue dans l'index 'bouteille', point de reprise du lot suivant
+     * (null : index parcouru jusqu'au bout).
+     * @param bouteillesDisparues le nombre de bouteilles disparues du lot, dont les avis ont été supprimés.
+     */
+    public LotOrphelins(String derniereBouteille, int bouteillesDisparues) {
+        this.derniereBouteille = derniereBouteille;
+        this.bouteillesDisparues = bouteillesDisparues;
+    }
+
+    public String getDerniereBouteille() {
+        return derniereBouteille;
+    }
+
+    public int getBouteillesDisparues() {
+        return bouteillesDisparues;
+    }
+
+    public boolean isDernier() {
+        return derniereBouteille == null;
+    }
+}
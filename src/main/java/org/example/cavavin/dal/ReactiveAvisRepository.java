@@ -0,0 +1,17 @@
+package org.example.cavavin.dal;
+
+import org.example.cavavin.bo.Avis;
+import org.example.cavavin.bo.Bouteille;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Pendant réactif d'AvisRepository (profil "reactive").
+ */
+@Profile("reactive")
+public interface ReactiveAvisRepository extends ReactiveMongoRepository<Avis, String> {
+
+    // Suppression en cascade : supprime tous les Avis référençant la Bouteille donnée
+    Mono<Void> deleteByBouteille(Bouteille bouteille);
+}
@@ -0,0 +1,38 @@
+package org.example.cavavin.dal;
+
+import org.bson.types.ObjectId;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Pendant réactif de BouteilleRepository (profil "reactive").
+ * Les lectures retournent BouteilleAvecRegion plutôt que l'entité : les références paresseuses
+ * (@DocumentReference) se résolvent de manière bloquante et ne doivent pas être touchées sur la boucle d'événements.
+ */
+@Profile("reactive")
+public interface ReactiveBouteilleRepository extends ReactiveMongoRepository<Bouteille, String>, ReactiveBouteilleRepositoryCustom {
+
+    /**
+     * Même $lookup que BouteilleRepository.findAllWithRegionEagerly(), la région étant lue comme sous-document.
+     */
+    @Aggregation(pipeline = {
+            "{ '$lookup' : { 'from' : 'regions', 'localField' : 'region_id', 'foreignField' : '_id', 'as' : 'region' } }",
+            "{ '$unwind' : '$region' }"
+    })
+    Flux<BouteilleAvecRegion> findAllWithRegionEagerly();
+
+    /**
+     * Consultation d'une bouteille avec sa région pré-chargée, en une seule agrégation.
+     */
+    @Aggregation(pipeline = {
+            "{ '$match' : { '_id' : ?0 } }",
+            "{ '$lookup' : { 'from' : 'regions', 'localField' : 'region_id', 'foreignField' : '_id', 'as' : 'region' } }",
+            "{ '$unwind' : { 'path' : '$region', 'preserveNullAndEmptyArrays' : true } }"
+    })
+    Mono<BouteilleAvecRegion> findWithRegionById(ObjectId id);
+}
@@ -0,0 +1,47 @@
+package org.example.cavavin.dal;
+
+import org.example.cavavin.bo.Avis;
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.example.cavavin.bo.BouteilleResume;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Fragment de ReactiveBouteilleRepository (voir BouteilleRepositoryCustom pour la variante bloquante).
+ */
+public interface ReactiveBouteilleRepositoryCustom {
+
+    /**
+     * Pagination par curseur (keyset), même pipeline que BouteilleRepositoryCustom.findPageWithRegionEagerly().
+     */
+    Flux<BouteilleAvecRegion> findPageWithRegionEagerly(String apresId, int limit);
+
+    /**
+     * Résumés BouteilleResume, émis au fil de l'eau depuis le curseur (même requête que BouteilleRepositoryCustom.findAllBy()).
+     */
+    Flux<BouteilleResume> findAllBy();
+
+    /**
+     * Même mise à jour atomique que BouteilleRepositoryCustom.pushAvis() ($push, $inc 'nbAvis', 'derniersAvis').
+     * @return true si la bouteille existe (et a été mise à jour), false sinon.
+     */
+    Mono<Boolean> pushAvis(String bouteilleId, Avis avis);
+
+    /**
+     * Compensation de pushAvis() quand l'insertion de l'avis échoue (même mise à jour que BouteilleRepositoryCustom.retirerAvisGroupes()).
+     */
+    Mono<Void> retirerAvis(String bouteilleId, Avis avis);
+
+    /**
+     * Incrémente la version de la bouteille une fois son avis inséré (même rôle que BouteilleRepositoryCustom.incrementerVersions()).
+     */
+    Mono<Void> incrementerVersion(String bouteilleId);
+
+    /**
+     * Suppression d'une bouteille conditionnée par sa version (verrouillage optimiste, même critère que
+     * BouteilleRepositoryCustom.modifier()) : une écriture intercalée depuis la lecture (ajout d'avis, modification)
+     * empêche la suppression.
+     * @return true si la bouteille a été supprimée, false si elle a changé (ou n'existe plus).
+     */
+    Mono<Boolean> supprimerSiVersion(String bouteilleId, Long version);
+}
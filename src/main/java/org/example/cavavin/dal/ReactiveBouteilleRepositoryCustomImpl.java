@@ -0,0 +1,67 @@
+package org.example.cavavin.dal;
+
+import org.example.cavavin.bo.Avis;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.example.cavavin.bo.BouteilleResume;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public class ReactiveBouteilleRepositoryCustomImpl implements ReactiveBouteilleRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    public ReactiveBouteilleRepositoryCustomImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Flux<BouteilleAvecRegion> findPageWithRegionEagerly(String apresId, int limit) {
+        // La région est jointe par $lookup : un miss du RegionCache ferait une lecture bloquante sur la boucle d'événements
+        return reactiveMongoTemplate.aggregate(BouteilleRepositoryCustomImpl.pagePipeline(apresId, limit, true),
+                reactiveMongoTemplate.getCollectionName(Bouteille.class), BouteilleAvecRegion.class);
+    }
+
+    @Override
+    public Flux<BouteilleResume> findAllBy() {
+        return reactiveMongoTemplate.find(BouteilleRepositoryCustomImpl.requeteResume(), BouteilleResume.class,
+                reactiveMongoTemplate.getCollectionName(Bouteille.class));
+    }
+
+    @Override
+    public Mono<Boolean> pushAvis(String bouteilleId, Avis avis) {
+        Query query = Query.query(Criteria.where("_id").is(bouteilleId));
+        return reactiveMongoTemplate.updateFirst(query, BouteilleRepositoryCustomImpl.ajoutAvis(List.of(avis)), Bouteille.class)
+                .map(resultat -> resultat.getMatchedCount() > 0);
+    }
+
+    @Override
+    public Mono<Void> retirerAvis(String bouteilleId, Avis avis) {
+        Query query = Query.query(Criteria.where("_id").is(bouteilleId));
+        return reactiveMongoTemplate.updateFirst(query, BouteilleRepositoryCustomImpl.retraitAvis(List.of(avis)), Bouteille.class)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> incrementerVersion(String bouteilleId) {
+        Query query = Query.query(Criteria.where("_id").is(bouteilleId));
+        return reactiveMongoTemplate.updateFirst(query, new Update().inc("version", 1), Bouteille.class)
+                .then();
+    }
+
+    @Override
+    public Mono<Boolean> supprimerSiVersion(String bouteilleId, Long version) {
+        Query query = Query.query(Criteria.where("_id").is(bouteilleId))
+                .addCriteria(BouteilleRepositoryCustomImpl.critereVersion(version == null ? 0 : version));
+        return reactiveMongoTemplate.remove(query, Bouteille.class)
+                .map(resultat -> resultat.getDeletedCount() > 0);
+    }
+}
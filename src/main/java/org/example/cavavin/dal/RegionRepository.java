@@ -3,5 +3,10 @@ package org.example.cavavin.dal;
 import org.example.cavavin.bo.Region;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Optional;
+
 public interface RegionRepository extends MongoRepository<Region, String> {
+
+    // Recherche par nom (index unique sur nomRegion)
+    Optional<Region> findByNomRegion(String nomRegion);
 }
@@ -0,0 +1,10 @@
+package org.example.cavavin.dal;
+
+import org.example.cavavin.bo.Statistique;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Collection matérialisée 'statistiques' : une ligne par groupe (région, couleur, millésime).
+ */
+public interface StatistiqueRepository extends MongoRepository<Statistique, Statistique.Cle>, StatistiqueRepositoryCustom {
+}
@@ -0,0 +1,37 @@
+package org.example.cavavin.dal;
+
+import org.example.cavavin.bo.Statistique;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Fragment de StatistiqueRepository : calcul des groupes depuis 'bouteilles', reconstruction et incréments.
+ */
+public interface StatistiqueRepositoryCustom {
+
+    /**
+     * Reconstruction complète : une agrégation regroupe toutes les bouteilles par région, couleur et millésime
+     * et écrit le résultat dans 'statistiques' par $merge (lignes remplacées ou insérées) ;
+     * les groupes qui n'existent plus sont ensuite supprimés.
+     * @return le nombre de groupes supprimés.
+     */
+    long reconstruire();
+
+    /**
+     * Groupes des bouteilles données (même agrégation que la reconstruction, sans écriture) :
+     * contribution de ces bouteilles aux statistiques, avant leur suppression en masse.
+     */
+    List<Statistique> calculerParIds(Collection<String> bouteilleIds);
+
+    /**
+     * Groupes des bouteilles qui correspondent au filtre du catalogue (critères null : non filtrés).
+     */
+    List<Statistique> calculerParFiltre(String couleur, Integer millesimeMin, Integer millesimeMax, String regionId);
+
+    /**
+     * Applique des variations ($inc des bouteilles et des avis, ligne créée si absente) en une écriture en masse
+     * non ordonnée. Les variations nulles sont ignorées.
+     */
+    void incrementer(Collection<Statistique> variations);
+}
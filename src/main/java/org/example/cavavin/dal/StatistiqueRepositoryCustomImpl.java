@@ -0,0 +1,113 @@
+package org.example.cavavin.dal;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.Statistique;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public class StatistiqueRepositoryCustomImpl implements StatistiqueRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public StatistiqueRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public long reconstruire() {
+        Date debut = new Date();
+        List<AggregationOperation> etapes = new ArrayList<>(groupes(new Criteria()));
+        etapes.add(context -> new Document("$addFields", new Document("majLe", debut)));
+        // Les lignes sont remplacées en place : la collection reste lisible pendant la reconstruction
+        etapes.add(Aggregation.merge()
+                .intoCollection(mongoTemplate.getCollectionName(Statistique.class))
+                .whenMatched(MergeOperation.WhenDocumentsMatch.replaceDocument())
+                .whenDocumentsDontMatch(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                .build());
+        mongoTemplate.aggregate(Aggregation.newAggregation(etapes), mongoTemplate.getCollectionName(Bouteille.class), Document.class);
+
+        // Groupes non écrits par la reconstruction ni incrémentés depuis son début : ils n'ont plus de bouteille
+        Query obsoletes = Query.query(new Criteria().orOperator(
+                Criteria.where("majLe").lt(debut), Criteria.where("majLe").exists(false)));
+        return mongoTemplate.remove(obsoletes, Statistique.class).getDeletedCount();
+    }
+
+    @Override
+    public List<Statistique> calculerParIds(Collection<String> bouteilleIds) {
+        List<ObjectId> objectIds = bouteilleIds.stream().filter(ObjectId::isValid).map(ObjectId::new).toList();
+        if (objectIds.isEmpty()) {
+            return List.of();
+        }
+        return calculer(Criteria.where("_id").in(objectIds));
+    }
+
+    @Override
+    public List<Statistique> calculerParFiltre(String couleur, Integer millesimeMin, Integer millesimeMax, String regionId) {
+        return calculer(BouteilleRepositoryCustomImpl.critereFiltre(couleur, millesimeMin, millesimeMax, regionId));
+    }
+
+    private List<Statistique> calculer(Criteria critere) {
+        return mongoTemplate.aggregate(Aggregation.newAggregation(groupes(critere)),
+                mongoTemplate.getCollectionName(Bouteille.class), Statistique.class).getMappedResults();
+    }
+
+    @Override
+    public void incrementer(Collection<Statistique> variations) {
+        Date maintenant = new Date();
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Statistique.class);
+        int ecritures = 0;
+        for (Statistique variation : variations) {
+            if (variation.getBouteilles() == 0 && variation.getAvis() == 0) {
+                continue;
+            }
+            operations.upsert(Query.query(Criteria.where("_id").is(variation.getId())), new Update()
+                    .inc("bouteilles", variation.getBouteilles())
+                    .inc("avis", variation.getAvis())
+                    .set("majLe", maintenant));
+            ecritures++;
+        }
+        if (ecritures > 0) {
+            operations.execute();
+        }
+    }
+
+    /**
+     * Regroupement des bouteilles retenues par le critère : chaque bouteille compte dans trois groupes au plus
+     * (sa région, sa couleur, son millésime ; une valeur absente n'est pas comptée), avec son compteur d'avis 'nbAvis'.
+     */
+    private static List<AggregationOperation> groupes(Criteria critere) {
+        return List.of(
+                Aggregation.match(critere),
+                context -> new Document("$project", new Document("_id", 0)
+                        .append("avis", new Document("$ifNull", List.of("$nbAvis", 0)))
+                        .append("groupes", List.of(
+                                groupe(Statistique.REGION, new Document("$toString", "$region_id")),
+                                groupe(Statistique.COULEUR, "$couleur.libelle"),
+                                groupe(Statistique.MILLESIME, new Document("$toString", "$millesime"))))),
+                context -> new Document("$unwind", "$groupes"),
+                context -> new Document("$match", new Document("groupes.valeur", new Document("$ne", null))),
+                // Même forme que Statistique.Cle (dimension puis valeur) : l'_id est comparé par $merge champ à champ
+                context -> new Document("$group", new Document("_id", "$groupes")
+                        .append("bouteilles", new Document("$sum", 1))
+                        .append("avis", new Document("$sum", "$avis"))));
+    }
+
+    private static Document groupe(String dimension, Object valeur) {
+        return new Document("dimension", dimension).append("valeur", valeur);
+    }
+}
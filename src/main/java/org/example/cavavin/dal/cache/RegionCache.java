@@ -0,0 +1,198 @@
+package org.example.cavavin.dal.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.example.cavavin.bo.Region;
+import org.example.cavavin.dal.RegionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache mémoire borné de la collection de référence 'regions' (quelques centaines de documents).
+ * Chargé au démarrage, tenu à jour par les événements d'écriture de RegionRepository
+ * (voir RegionCacheInvalidationListener) et rechargé périodiquement pour voir les écritures des autres instances.
+ * Les régions retournées sont des copies : une modification par l'appelant n'altère pas le cache.
+ * Au-delà de la taille maximale, la région la moins récemment lue est évincée pour faire place à la nouvelle.
+ */
+@Component
+public class RegionCache {
+
+    private final RegionRepository regionRepository;
+    private final int tailleMax;
+    private final boolean chargementBloquant;
+    private final Map<String, Entree> regionsParId = new ConcurrentHashMap<>();
+    // Horloge logique des accès, pour l'éviction de la région la moins récemment lue
+    private final AtomicLong horloge = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    // Chargements en arrière-plan des régions absentes (trouverSansAttente), un seul à la fois par région
+    private final Set<String> enChargement = ConcurrentHashMap.newKeySet();
+    private final ExecutorService chargeur = Executors.newSingleThreadExecutor(tache -> {
+        Thread thread = new Thread(tache, "chargement-regions");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public RegionCache(RegionRepository regionRepository, MeterRegistry meterRegistry,
+                       @Value("${cavavin.cache.regions.taille-max:1000}") int tailleMax, Environment environment) {
+        // Avec le profil "reactive", les convertisseurs (partagés par les deux templates) servent la boucle d'événements
+        this(regionRepository, meterRegistry, tailleMax, !environment.matchesProfiles("reactive"));
+    }
+
+    /**
+     * @param chargementBloquant true si une région absente peut être chargée pendant une conversion (pile servlet).
+     */
+    public RegionCache(RegionRepository regionRepository, MeterRegistry meterRegistry, int tailleMax, boolean chargementBloquant) {
+        this.regionRepository = regionRepository;
+        this.tailleMax = tailleMax;
+        this.chargementBloquant = chargementBloquant;
+        this.hits = meterRegistry.counter("cavavin.cache.regions.requetes", "resultat", "hit");
+        this.misses = meterRegistry.counter("cavavin.cache.regions.requetes", "resultat", "miss");
+        meterRegistry.gaugeMapSize("cavavin.cache.regions.taille", Tags.empty(), regionsParId);
+    }
+
+    /**
+     * Lecture seule du cache (aucune requête MongoDB).
+     */
+    public Optional<Region> trouver(String id) {
+        Entree entree = regionsParId.get(id);
+        if (entree == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        entree.dernierAcces = horloge.incrementAndGet();
+        return Optional.of(copie(entree.region));
+    }
+
+    /**
+     * Résolution d'une région pendant la conversion d'un document : lecture du cache avec chargement en cas d'absence
+     * (trouverOuCharger) sur la pile servlet ; sans requête bloquante (trouverSansAttente) avec le profil "reactive".
+     * @return la région, ou null si elle n'existe pas (ou n'est pas encore en cache, avec le profil "reactive").
+     */
+    public Region resoudre(String id) {
+        return chargementBloquant ? trouverOuCharger(id) : trouverSansAttente(id).orElse(null);
+    }
+
+    /**
+     * Lecture du cache sans attente, pour les convertisseurs et écouteurs de conversion (utilisés aussi par la pile
+     * réactive, où une requête bloquante est exclue) : en cas d'absence, la région est chargée en arrière-plan pour
+     * les lectures suivantes, et vide est retourné.
+     */
+    public Optional<Region> trouverSansAttente(String id) {
+        Optional<Region> region = trouver(id);
+        if (region.isEmpty() && regionRepository != null && enChargement.add(id)) {
+            try {
+                chargeur.execute(() -> {
+                    try {
+                        regionRepository.findById(id).ifPresent(this::mettreAJour);
+                    } finally {
+                        enChargement.remove(id);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Arrêt en cours
+                enChargement.remove(id);
+            }
+        }
+        return region;
+    }
+
+    /**
+     * Lecture du cache, avec chargement depuis MongoDB en cas d'absence.
+     * @return la région, ou null si elle n'existe pas.
+     */
+    public Region trouverOuCharger(String id) {
+        return trouver(id).orElseGet(() -> regionRepository.findById(id)
+                .map(region -> {
+                    mettreAJour(region);
+                    return copie(region);
+                })
+                .orElse(null));
+    }
+
+    /**
+     * Ajoute ou remplace une région (après une écriture ou un chargement). Une nouvelle région au-delà de la taille
+     * maximale évince la région la moins récemment lue.
+     */
+    public synchronized void mettreAJour(Region region) {
+        if (region.getId() == null || tailleMax <= 0) {
+            return;
+        }
+        Entree existante = regionsParId.get(region.getId());
+        if (existante == null) {
+            while (regionsParId.size() >= tailleMax) {
+                evincerMoinsRecente();
+            }
+        }
+        regionsParId.put(region.getId(), new Entree(copie(region), horloge.incrementAndGet()));
+    }
+
+    // Parcours linéaire : n'a lieu qu'à l'ajout d'une région absente d'un cache plein
+    private void evincerMoinsRecente() {
+        regionsParId.entrySet().stream()
+                .min((a, b) -> Long.compare(a.getValue().dernierAcces, b.getValue().dernierAcces))
+                .ifPresent(entree -> regionsParId.remove(entree.getKey(), entree.getValue()));
+    }
+
+    public void retirer(String id) {
+        regionsParId.remove(id);
+    }
+
+    /**
+     * Recharge le cache complet : au démarrage, périodiquement, et après une suppression par requête.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${cavavin.cache.regions.rafraichissement:PT5M}",
+            initialDelayString = "${cavavin.cache.regions.rafraichissement:PT5M}")
+    public void recharger() {
+        Map<String, Region> regions = new ConcurrentHashMap<>();
+        regionRepository.findAll().forEach(region -> regions.put(region.getId(), region));
+        synchronized (this) {
+            regionsParId.keySet().retainAll(regions.keySet());
+            // Les régions en cache sont rafraîchies en conservant leur dernier accès ; les autres complètent le cache
+            regionsParId.replaceAll((id, entree) -> new Entree(copie(regions.remove(id)), entree.dernierAcces));
+            regions.values().stream()
+                    .limit(Math.max(0, tailleMax - regionsParId.size()))
+                    .forEach(region -> regionsParId.put(region.getId(), new Entree(copie(region), 0)));
+        }
+    }
+
+    @PreDestroy
+    public void arreter() {
+        chargeur.shutdownNow();
+    }
+
+    private static Region copie(Region region) {
+        return new Region(region.getId(), region.getNomRegion());
+    }
+
+    private static class Entree {
+        private final Region region;
+        private volatile long dernierAcces;
+
+        private Entree(Region region, long dernierAcces) {
+            this.region = region;
+            this.dernierAcces = dernierAcces;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.cavavin.dal.cache;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.cavavin.bo.Region;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tient le RegionCache à jour à chaque écriture passant par RegionRepository (ou MongoTemplate) sur 'regions'.
+ */
+@Component
+public class RegionCacheInvalidationListener extends AbstractMongoEventListener<Region> {
+
+    private final RegionCache regionCache;
+
+    @Autowired
+    public RegionCacheInvalidationListener(RegionCache regionCache) {
+        this.regionCache = regionCache;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Region> event) {
+        regionCache.mettreAJour(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Region> event) {
+        // Le document de l'événement est la requête de suppression : un _id simple est retiré,
+        // toute autre requête (deleteAll, $in...) provoque un rechargement complet
+        Document requete = event.getDocument();
+        Object id = requete.size() == 1 ? requete.get("_id") : null;
+        if (id instanceof ObjectId objectId) {
+            regionCache.retirer(objectId.toHexString());
+        } else if (id instanceof String chaine) {
+            regionCache.retirer(chaine);
+        } else {
+            regionCache.recharger();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.cavavin.dal.cache;
+
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Résout le 'region_id' des vues de lecture BouteilleAvecRegion depuis le RegionCache, juste après leur conversion :
+ * ni $lookup ni requête supplémentaire pour la région. En cas de miss, la région est chargée et mise en cache ;
+ * avec le profil "reactive" (l'écouteur reçoit aussi les conversions du template réactif), elle reste non résolue
+ * (seul 'region_id' est renseigné) et elle est chargée en arrière-plan (voir RegionCache.resoudre).
+ * Si elle a déjà été jointe par un $lookup (pile réactive), rien n'est fait.
+ * L'entité Bouteille est résolue de la même façon par son convertisseur (BouteilleReadConverter).
+ */
+@Component
+public class RegionResolutionListener extends AbstractMongoEventListener<Object> {
+
+    private final RegionCache regionCache;
+
+    @Autowired
+    public RegionResolutionListener(RegionCache regionCache) {
+        this.regionCache = regionCache;
+    }
+
+    @Override
+    public void onAfterConvert(AfterConvertEvent<Object> event) {
+        if (event.getSource() instanceof BouteilleAvecRegion bouteille
+                && bouteille.getRegion() == null && bouteille.getRegionId() != null) {
+            bouteille.setRegion(regionCache.resoudre(bouteille.getRegionId()));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.cavavin.dal.config;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.ReadPreference;
+import com.mongodb.TagSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routage des lectures lourdes et tolérantes au retard (liste complète, résumés, export) : préférence et niveau de lecture
+ * propres à ces requêtes, par exemple secondaryPreferred pour décharger le primaire d'un replica set.
+ * Les écritures et les lectures qui suivent une écriture (consultation, pagination...) restent sur la préférence
+ * par défaut du client (voir MongoClientConfig).
+ *
+ * Propriétés : cavavin.mongo.lectures-lourdes.preference (primary, primaryPreferred, secondary, secondaryPreferred, nearest),
+ * .read-concern (local, available, majority ; vide : celui du client), .obsolescence-max (retard maximal toléré d'un
+ * secondaire, au moins 90 s ; vide : sans limite).
+ */
+@Component
+public class LecturesLourdes {
+
+    private final ReadPreference preference;
+    private final ReadConcern readConcern;
+
+    @Autowired
+    public LecturesLourdes(@Value("${cavavin.mongo.lectures-lourdes.preference:primary}") String preference,
+                           @Value("${cavavin.mongo.lectures-lourdes.read-concern:}") String readConcern,
+                           @Value("${cavavin.mongo.lectures-lourdes.obsolescence-max:#{null}}") Duration obsolescenceMax) {
+        // Une valeur invalide fait échouer le démarrage plutôt que la première requête
+        this.preference = obsolescenceMax == null
+                ? ReadPreference.valueOf(preference)
+                : ReadPreference.valueOf(preference, List.<TagSet>of(), obsolescenceMax.toMillis(), TimeUnit.MILLISECONDS);
+        this.readConcern = readConcern.isBlank() ? null : new ReadConcern(ReadConcernLevel.fromString(readConcern));
+    }
+
+    /**
+     * Applique la préférence et le niveau de lecture à une requête.
+     */
+    public Query appliquer(Query query) {
+        query.withReadPreference(preference);
+        if (readConcern != null) {
+            query.withReadConcern(readConcern);
+        }
+        return query;
+    }
+
+    /**
+     * Même chose pour les options d'une agrégation (export du catalogue).
+     */
+    public AggregationOptions.Builder appliquer(AggregationOptions.Builder options) {
+        options.readPreference(preference);
+        if (readConcern != null) {
+            options.readConcern(readConcern);
+        }
+        return options;
+    }
+
+    public ReadPreference getPreference() {
+        return preference;
+    }
+}
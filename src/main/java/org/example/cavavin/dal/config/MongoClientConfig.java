@@ -0,0 +1,113 @@
+package org.example.cavavin.dal.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.ReadPreference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Réglages des clients MongoDB (bloquant et réactif), appliqués après spring.data.mongodb.* :
+ * - pool de connexions : cavavin.mongo.pool.taille-min, .taille-max, .attente-max (attente d'une connexion libre),
+ *   .inactivite-max ;
+ * - cavavin.mongo.connexion.delai : délai d'établissement d'une connexion ;
+ * - cavavin.mongo.compression : compresseurs proposés au serveur, par ordre de préférence (zstd, snappy, zlib) ;
+ *   le premier pris en charge par le serveur est utilisé, sans compression sinon ;
+ * - cavavin.mongo.lectures.preference et .read-concern : valeurs par défaut de toutes les opérations
+ *   (les lectures lourdes ont les leurs, voir LecturesLourdes).
+ * Une propriété absente laisse la valeur du driver (ou de l'URI de connexion).
+ */
+@Slf4j
+@Component
+public class MongoClientConfig implements MongoClientSettingsBuilderCustomizer {
+
+    private final Integer tailleMin;
+    private final Integer tailleMax;
+    private final Duration attenteMax;
+    private final Duration inactiviteMax;
+    private final Duration delaiConnexion;
+    private final List<MongoCompressor> compresseurs;
+    private final ReadPreference preference;
+    private final ReadConcern readConcern;
+
+    @Autowired
+    public MongoClientConfig(@Value("${cavavin.mongo.pool.taille-min:#{null}}") Integer tailleMin,
+                             @Value("${cavavin.mongo.pool.taille-max:#{null}}") Integer tailleMax,
+                             @Value("${cavavin.mongo.pool.attente-max:#{null}}") Duration attenteMax,
+                             @Value("${cavavin.mongo.pool.inactivite-max:#{null}}") Duration inactiviteMax,
+                             @Value("${cavavin.mongo.connexion.delai:#{null}}") Duration delaiConnexion,
+                             @Value("${cavavin.mongo.compression:}") String compression,
+                             @Value("${cavavin.mongo.lectures.preference:}") String preference,
+                             @Value("${cavavin.mongo.lectures.read-concern:}") String readConcern) {
+        this.tailleMin = tailleMin;
+        this.tailleMax = tailleMax;
+        this.attenteMax = attenteMax;
+        this.inactiviteMax = inactiviteMax;
+        this.delaiConnexion = delaiConnexion;
+        this.compresseurs = Arrays.stream(compression.split(","))
+                .map(String::trim)
+                .filter(nom -> !nom.isEmpty())
+                .map(MongoClientConfig::compresseur)
+                .toList();
+        this.preference = preference.isBlank() ? null : ReadPreference.valueOf(preference);
+        this.readConcern = readConcern.isBlank() ? null : new ReadConcern(ReadConcernLevel.fromString(readConcern));
+    }
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.applyToConnectionPoolSettings(pool -> {
+            if (tailleMin != null) {
+                pool.minSize(tailleMin);
+            }
+            if (tailleMax != null) {
+                pool.maxSize(tailleMax);
+            }
+            if (attenteMax != null) {
+                pool.maxWaitTime(attenteMax.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            if (inactiviteMax != null) {
+                pool.maxConnectionIdleTime(inactiviteMax.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+        if (delaiConnexion != null) {
+            builder.applyToSocketSettings(socket -> socket.connectTimeout(delaiConnexion.toMillis(), TimeUnit.MILLISECONDS));
+        }
+        if (!compresseurs.isEmpty()) {
+            builder.compressorList(compresseurs);
+        }
+        if (preference != null) {
+            builder.readPreference(preference);
+        }
+        if (readConcern != null) {
+            builder.readConcern(readConcern);
+        }
+        log.info("Client MongoDB : pool {}..{} (attente max {}), compression {}, lectures {} / {}",
+                ouDefaut(tailleMin), ouDefaut(tailleMax), ouDefaut(attenteMax),
+                compresseurs.stream().map(MongoCompressor::getName).toList(),
+                ouDefaut(preference), ouDefaut(readConcern == null ? null : readConcern.getLevel()));
+    }
+
+    private static Object ouDefaut(Object valeur) {
+        return valeur == null ? "défaut" : valeur;
+    }
+
+    // Les bibliothèques zstd-jni et snappy-java sont fournies à l'exécution (build.gradle)
+    private static MongoCompressor compresseur(String nom) {
+        return switch (nom.toLowerCase()) {
+            case "zstd" -> MongoCompressor.createZstdCompressor();
+            case "snappy" -> MongoCompressor.createSnappyCompressor();
+            case "zlib" -> MongoCompressor.createZlibCompressor();
+            default -> throw new IllegalArgumentException("Compresseur MongoDB inconnu : " + nom + " (zstd, snappy ou zlib)");
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.cavavin.dal.config;
+
+import org.example.cavavin.dal.cache.RegionCache;
+import org.example.cavavin.dal.convert.AvisReadConverter;
+import org.example.cavavin.dal.convert.BouteilleReadConverter;
+import org.example.cavavin.dal.convert.BouteilleResumeReadConverter;
+import org.example.cavavin.dal.convert.RegionReadConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+
+/**
+ * Convertisseurs de lecture écrits à la main pour les documents les plus lus (Bouteille, Region, Avis, résumés) :
+ * le MappingMongoConverter les utilise à la place du mapping réflexif, pour les templates bloquant et réactif.
+ * Les écritures restent assurées par le mapping (index, @Version, références converties en IDs).
+ */
+@Configuration
+public class MongoConversionsConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions(ObjectProvider<RegionCache> regionCache,
+                                                         ObjectProvider<MongoOperations> mongoOperations) {
+        return new MongoCustomConversions(List.of(
+                new BouteilleReadConverter(regionCache::getObject, mongoOperations::getObject),
+                new RegionReadConverter(),
+                new AvisReadConverter(),
+                new BouteilleResumeReadConverter()));
+    }
+}
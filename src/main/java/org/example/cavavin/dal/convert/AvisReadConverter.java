@@ -0,0 +1,24 @@
+package org.example.cavavin.dal.convert;
+
+import org.bson.Document;
+import org.example.cavavin.bo.Avis;
+import org.example.cavavin.bo.Bouteille;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+/**
+ * Lecture d'un avis. La bouteille parente n'est pas chargée : elle est lue comme une simple référence (son ID),
+ * ce qui suffit aux requêtes et aux écritures de l'avis (voir Avis.bouteille).
+ */
+@ReadingConverter
+public class AvisReadConverter implements Converter<Document, Avis> {
+
+    @Override
+    public Avis convert(Document source) {
+        Bouteille bouteille = new Bouteille();
+        bouteille.setId(LectureBson.identifiant(source.get("bouteille")));
+        Avis avis = new Avis(source.getString("commentaire"), bouteille);
+        avis.setId(LectureBson.identifiant(source.get("_id")));
+        return avis;
+    }
+}
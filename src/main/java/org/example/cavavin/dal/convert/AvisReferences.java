@@ -0,0 +1,73 @@
+package org.example.cavavin.dal.convert;
+
+import org.bson.types.ObjectId;
+import org.example.cavavin.bo.Avis;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Liste paresseuse des avis d'une bouteille, à la place du proxy de @DocumentReference(lazy = true) :
+ * les avis sont chargés au premier accès, en une requête ($in sur les IDs), dans l'ordre des références.
+ * Une référence vers un avis supprimé est ignorée.
+ */
+final class AvisReferences extends AbstractList<Avis> {
+
+    private final List<ObjectId> ids;
+    private final Supplier<MongoOperations> mongoOperations;
+    private volatile List<Avis> avis;
+
+    AvisReferences(List<ObjectId> ids, Supplier<MongoOperations> mongoOperations) {
+        this.ids = ids;
+        this.mongoOperations = mongoOperations;
+    }
+
+    @Override
+    public Avis get(int index) {
+        return charger().get(index);
+    }
+
+    @Override
+    public int size() {
+        return charger().size();
+    }
+
+    private List<Avis> charger() {
+        List<Avis> charges = avis;
+        if (charges == null) {
+            synchronized (this) {
+                charges = avis;
+                if (charges == null) {
+                    charges = lire();
+                    avis = charges;
+                }
+            }
+        }
+        return charges;
+    }
+
+    private List<Avis> lire() {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Avis> parId = new HashMap<>();
+        for (Avis lu : mongoOperations.get().find(Query.query(Criteria.where("_id").in(ids)), Avis.class)) {
+            parId.put(lu.getId(), lu);
+        }
+        List<Avis> ordonnes = new ArrayList<>(ids.size());
+        for (ObjectId id : ids) {
+            Avis lu = parId.get(id.toHexString());
+            if (lu != null) {
+                ordonnes.add(lu);
+            }
+        }
+        return ordonnes;
+    }
+}
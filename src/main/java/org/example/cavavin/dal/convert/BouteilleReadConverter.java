@@ -0,0 +1,76 @@
+package org.example.cavavin.dal.convert;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.Region;
+import org.example.cavavin.dal.cache.RegionCache;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Lecture d'une bouteille complète, sans accès réflexif aux propriétés ni proxies de @DocumentReference :
+ * - la région est lue depuis le RegionCache (RegionCache.resoudre) : chargée et mise en cache en cas de miss sur la pile
+ *   servlet. Avec le profil "reactive", le convertisseur sert aussi le template réactif : pas de requête bloquante,
+ *   la région est chargée en arrière-plan et la bouteille n'a qu'une référence (ID seul, sans nom), ce qui préserve
+ *   'region_id' si la bouteille est réécrite ;
+ * - les avis restent paresseux (AvisReferences) : une seule requête, au premier accès à la liste.
+ * Un document partiel (projection) laisse les champs absents à leur valeur par défaut.
+ * Le cache et MongoOperations sont résolus à l'usage : ils dépendent eux-mêmes du convertisseur.
+ */
+@ReadingConverter
+public class BouteilleReadConverter implements Converter<Document, Bouteille> {
+
+    private final Supplier<RegionCache> regionCache;
+    private final Supplier<MongoOperations> mongoOperations;
+
+    public BouteilleReadConverter(Supplier<RegionCache> regionCache, Supplier<MongoOperations> mongoOperations) {
+        this.regionCache = regionCache;
+        this.mongoOperations = mongoOperations;
+    }
+
+    @Override
+    public Bouteille convert(Document source) {
+        Bouteille bouteille = new Bouteille();
+        bouteille.setId(LectureBson.identifiant(source.get("_id")));
+        bouteille.setVersion(LectureBson.entierLong(source.get("version")));
+        // 'nom' et 'millesime' sont obligatoires (@NonNull) mais absents d'une projection
+        if (source.get("nom") instanceof String nom) {
+            bouteille.setNom(nom);
+        }
+        Integer millesime = LectureBson.entier(source.get("millesime"));
+        if (millesime != null) {
+            bouteille.setMillesime(millesime);
+        }
+        if (source.get("region_id") instanceof ObjectId regionId) {
+            String id = regionId.toHexString();
+            Region region = regionCache.get().resoudre(id);
+            bouteille.setRegion(region != null ? region : reference(id));
+        }
+        bouteille.setCouleur(LectureBson.couleur(source.get("couleur")));
+        if (source.get("avis") instanceof List<?> references) {
+            List<ObjectId> ids = new ArrayList<>(references.size());
+            for (Object reference : references) {
+                if (reference instanceof ObjectId id) {
+                    ids.add(id);
+                }
+            }
+            bouteille.setAvis(new AvisReferences(ids, mongoOperations));
+        }
+        bouteille.setNbAvis(source.get("nbAvis") instanceof Number nbAvis ? nbAvis.intValue() : 0);
+        bouteille.setDerniersAvis(LectureBson.derniersAvis(source.get("derniersAvis")));
+        return bouteille;
+    }
+
+    // Région non résolue : seul son ID est connu
+    private static Region reference(String id) {
+        Region region = new Region();
+        region.setId(id);
+        return region;
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.cavavin.dal.convert;
+
+import org.bson.Document;
+import org.example.cavavin.bo.BouteilleResume;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+import java.util.List;
+
+/**
+ * Lecture d'un résumé de bouteille depuis son document BSON : un seul objet alloué par bouteille
+ * (plus ses sous-objets), sans proxy de projection ni introspection des propriétés.
+ */
+@ReadingConverter
+public class BouteilleResumeReadConverter implements Converter<Document, BouteilleResume> {
+
+    // Champs à projeter dans la requête : les autres (liste 'avis', région) ne sont pas transférés
+    public static final List<String> CHAMPS = List.of("nom", "millesime", "couleur", "nbAvis", "derniersAvis");
+
+    @Override
+    public BouteilleResume convert(Document source) {
+        return new BouteilleResume(
+                source.getString("nom"),
+                LectureBson.entier(source.get("millesime")),
+                LectureBson.couleur(source.get("couleur")),
+                source.get("nbAvis") instanceof Number nbAvis ? nbAvis.intValue() : 0,
+                LectureBson.derniersAvis(source.get("derniersAvis")));
+    }
+}
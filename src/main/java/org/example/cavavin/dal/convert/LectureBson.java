@@ -0,0 +1,54 @@
+package org.example.cavavin.dal.convert;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.cavavin.bo.AvisResume;
+import org.example.cavavin.bo.Couleur;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectures de champs BSON communes aux convertisseurs : mêmes règles que le MappingMongoConverter
+ * (ObjectId lu en chaîne hexadécimale, nombres élargis ou réduits au type Java du champ).
+ */
+final class LectureBson {
+
+    private LectureBson() {
+    }
+
+    static String identifiant(Object valeur) {
+        if (valeur == null) {
+            return null;
+        }
+        return valeur instanceof ObjectId objectId ? objectId.toHexString() : valeur.toString();
+    }
+
+    static Integer entier(Object valeur) {
+        return valeur instanceof Number nombre ? nombre.intValue() : null;
+    }
+
+    static Long entierLong(Object valeur) {
+        return valeur instanceof Number nombre ? nombre.longValue() : null;
+    }
+
+    static Couleur couleur(Object valeur) {
+        return valeur instanceof Document document ? new Couleur(document.getString("libelle")) : null;
+    }
+
+    /**
+     * Sous-documents 'derniersAvis' ({_id, commentaire}) d'une bouteille.
+     */
+    static List<AvisResume> derniersAvis(Object valeur) {
+        if (!(valeur instanceof List<?> documents)) {
+            return null;
+        }
+        List<AvisResume> avis = new ArrayList<>(documents.size());
+        for (Object element : documents) {
+            if (element instanceof Document document) {
+                avis.add(new AvisResume(identifiant(document.get("_id")), document.getString("commentaire")));
+            }
+        }
+        return avis;
+    }
+}
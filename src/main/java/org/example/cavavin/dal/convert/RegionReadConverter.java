@@ -0,0 +1,19 @@
+package org.example.cavavin.dal.convert;
+
+import org.bson.Document;
+import org.example.cavavin.bo.Region;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+/**
+ * Lecture d'une région : documents de la collection 'regions' et sous-documents 'region' joints par $lookup
+ * (pages, consultation détaillée, recherche).
+ */
+@ReadingConverter
+public class RegionReadConverter implements Converter<Document, Region> {
+
+    @Override
+    public Region convert(Document source) {
+        return new Region(LectureBson.identifiant(source.get("_id")), source.getString("nomRegion"));
+    }
+}
@@ -0,0 +1,190 @@
+package org.example.cavavin.dal.metrics;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instrumentation des commandes MongoDB (clients bloquant et réactif), à la place des logs DEBUG de MongoTemplate :
+ * - cavavin.mongo.commandes : latence par commande, collection et statut (timer avec histogramme) ;
+ * - cavavin.mongo.commandes.documents : documents retournés (find, aggregate, getMore) ou écrits ;
+ * - cavavin.mongo.commandes.octets : taille de la réponse.
+ * Les commandes plus lentes que cavavin.mongo.requete-lente sont journalisées avec leur forme
+ * (clés et opérateurs, sans les valeurs : pas de données métier dans les logs) ; un seuil de 0 désactive ce log.
+ */
+@Slf4j
+@Component
+public class MongoCommandMetrics implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    // Champs d'une commande qui ne décrivent pas sa forme (session, lecture, transaction...)
+    private static final Set<String> CHAMPS_TECHNIQUES = Set.of("$db", "lsid", "$clusterTime", "$readPreference",
+            "readConcern", "writeConcern", "txnNumber", "autocommit", "startTransaction", "apiVersion");
+
+    // Champs de structure (jointures, unwind) : leur valeur fait partie de la forme
+    private static final Set<String> CHAMPS_STRUCTURE = Set.of("from", "localField", "foreignField", "as", "path");
+
+    // Nombre maximum d'éléments de tableau (étapes de pipeline...) conservés dans la forme
+    private static final int MAX_ELEMENTS = 10;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration seuilRequeteLente;
+
+    // Commandes en cours, par requestId : la collection et la forme ne sont disponibles qu'au démarrage
+    private final Map<Integer, CommandeEnCours> enCours = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MongoCommandMetrics(MeterRegistry meterRegistry,
+                               @Value("${cavavin.mongo.requete-lente:100ms}") Duration seuilRequeteLente) {
+        this.meterRegistry = meterRegistry;
+        this.seuilRequeteLente = seuilRequeteLente;
+    }
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument commande = event.getCommand();
+        BsonValue cible = commande.get(event.getCommandName());
+        String collection = cible != null && cible.isString() ? cible.asString().getValue() : "-";
+        // La commande n'est valide que pendant cet appel : sa forme est calculée maintenant (sauf si le log est désactivé)
+        String forme = journaliserRequetesLentes() ? forme(commande, 0).asDocument().toJson() : null;
+        enCours.put(event.getRequestId(), new CommandeEnCours(collection, forme));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        CommandeEnCours commande = enCours.remove(event.getRequestId());
+        if (commande == null) {
+            return;
+        }
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        enregistrer(event.getCommandName(), commande, "succes", nanos);
+
+        BsonDocument reponse = event.getResponse();
+        DistributionSummary.builder("cavavin.mongo.commandes.documents")
+                .tags("commande", event.getCommandName(), "collection", commande.collection)
+                .register(meterRegistry)
+                .record(documents(reponse));
+        // Réponse brute (cas du driver) : sa taille est connue sans la ré-encoder
+        if (reponse instanceof RawBsonDocument brute) {
+            DistributionSummary.builder("cavavin.mongo.commandes.octets")
+                    .baseUnit("bytes")
+                    .tags("commande", event.getCommandName(), "collection", commande.collection)
+                    .register(meterRegistry)
+                    .record(brute.getByteBuffer().remaining());
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        CommandeEnCours commande = enCours.remove(event.getRequestId());
+        if (commande != null) {
+            enregistrer(event.getCommandName(), commande, "echec", event.getElapsedTime(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    private void enregistrer(String nomCommande, CommandeEnCours commande, String statut, long nanos) {
+        Timer.builder("cavavin.mongo.commandes")
+                .tags("commande", nomCommande, "collection", commande.collection, "statut", statut)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (journaliserRequetesLentes() && nanos >= seuilRequeteLente.toNanos()) {
+            log.warn("Requête MongoDB lente ({} ms, {}) : {}", TimeUnit.NANOSECONDS.toMillis(nanos), statut, commande.forme);
+        }
+    }
+
+    // Un seuil nul ou négatif désactive le log des requêtes lentes
+    private boolean journaliserRequetesLentes() {
+        return !seuilRequeteLente.isNegative() && !seuilRequeteLente.isZero();
+    }
+
+    /**
+     * Nombre de documents d'une réponse : lot du curseur pour find/aggregate/getMore, 'n' pour les écritures.
+     */
+    private static int documents(BsonDocument reponse) {
+        BsonValue curseur = reponse.get("cursor");
+        if (curseur != null && curseur.isDocument()) {
+            BsonValue lot = curseur.asDocument().containsKey("firstBatch")
+                    ? curseur.asDocument().get("firstBatch") : curseur.asDocument().get("nextBatch");
+            return lot != null && lot.isArray() ? lot.asArray().size() : 0;
+        }
+        BsonValue n = reponse.get("n");
+        return n != null && n.isNumber() ? n.asNumber().intValue() : 0;
+    }
+
+    /**
+     * Forme d'une commande : les clés, champs de structure et références de champ sont conservés, les valeurs remplacées par '?',
+     * les tableaux de valeurs réduits à leur premier élément et la profondeur bornée.
+     */
+    private static BsonValue forme(BsonValue valeur, int profondeur) {
+        if (valeur.isDocument()) {
+            if (profondeur > 6) {
+                return new BsonString("{...}");
+            }
+            BsonDocument forme = new BsonDocument();
+            for (Map.Entry<String, BsonValue> champ : valeur.asDocument().entrySet()) {
+                if (profondeur == 0 && CHAMPS_TECHNIQUES.contains(champ.getKey())) {
+                    continue;
+                }
+                // Le nom de la commande, sa collection et les champs de structure restent lisibles
+                boolean lisible = (profondeur == 0 && forme.isEmpty()) || CHAMPS_STRUCTURE.contains(champ.getKey());
+                forme.put(champ.getKey(), lisible && !champ.getValue().isDocument() ? champ.getValue() : forme(champ.getValue(), profondeur + 1));
+            }
+            return forme;
+        }
+        if (valeur.isArray()) {
+            // Les étapes d'un pipeline (documents) sont toutes utiles, dans la limite de MAX_ELEMENTS ;
+            // une liste de valeurs ($in...) est réduite à son premier élément
+            BsonArray tableau = valeur.asArray();
+            int conserves = !tableau.isEmpty() && tableau.get(0).isDocument() ? Math.min(tableau.size(), MAX_ELEMENTS) : Math.min(tableau.size(), 1);
+            BsonArray forme = new BsonArray();
+            for (int i = 0; i < conserves; i++) {
+                forme.add(forme(tableau.get(i), profondeur + 1));
+            }
+            if (tableau.size() > conserves) {
+                forme.add(new BsonString("... (" + tableau.size() + ")"));
+            }
+            return forme;
+        }
+        // Les références de champ ("$region_id", "$$variable") décrivent la requête, pas les données
+        if (valeur.isString() && valeur.asString().getValue().startsWith("$")) {
+            return valeur;
+        }
+        return new BsonString("?");
+    }
+
+    private static final class CommandeEnCours {
+        private final String collection;
+        private final String forme;
+
+        CommandeEnCours(String collection, String forme) {
+            this.collection = collection;
+            this.forme = forme;
+        }
+    }
+}
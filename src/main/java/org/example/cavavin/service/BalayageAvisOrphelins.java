@@ -0,0 +1,147 @@
+package org.example.cavavin.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cavavin.dal.AvisRepository;
+import org.example.cavavin.dal.LotOrphelins;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Suppression asynchrone des avis orphelins (bouteille supprimée), par lots d'au plus cavavin.avis.balayage.taille-lot bouteilles.
+ * Sert à la suppression en masse asynchrone : les bouteilles sont supprimées par un seul deleteMany, leurs avis ensuite,
+ * sans bloquer la requête. Les demandes reçues pendant un balayage sont regroupées en un seul balayage suivant.
+ * <ul>
+ *     <li>Bouteilles supprimées par ID : leurs avis sont supprimés par ces IDs (index 'bouteille'), sans autre lecture.</li>
+ *     <li>Bouteilles supprimées par filtre (IDs inconnus) : balayage complet de l'index 'bouteille' de 'avis', lot après
+ *     lot, chaque lot reprenant après la dernière bouteille du précédent.</li>
+ * </ul>
+ * Métrique : cavavin.avis.orphelins.bouteilles (bouteilles disparues dont les avis ont été supprimés).
+ */
+@Slf4j
+@Component
+public class BalayageAvisOrphelins {
+
+    private final AvisRepository avisRepository;
+    private final int tailleLot;
+    private final Counter bouteillesTraitees;
+
+    // Un seul balayage à la fois, sur un thread dédié
+    private final ExecutorService executeur = Executors.newSingleThreadExecutor(tache -> {
+        Thread thread = new Thread(tache, "balayage-avis-orphelins");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean demande = new AtomicBoolean();
+    // Bouteilles supprimées connues, et demande d'un balayage complet
+    private final Queue<String> bouteillesSupprimees = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean balayageComplet = new AtomicBoolean();
+
+    @Autowired
+    public BalayageAvisOrphelins(AvisRepository avisRepository, MeterRegistry meterRegistry,
+                                 @Value("${cavavin.avis.balayage.taille-lot:1000}") int tailleLot) {
+        this.avisRepository = avisRepository;
+        this.tailleLot = tailleLot;
+        this.bouteillesTraitees = meterRegistry.counter("cavavin.avis.orphelins.bouteilles");
+    }
+
+    /**
+     * Programme la suppression des avis des bouteilles données (supprimées par ID).
+     */
+    public void demander(Collection<String> bouteilleIds) {
+        bouteillesSupprimees.addAll(bouteilleIds);
+        programmer();
+    }
+
+    /**
+     * Programme un balayage complet, pour des bouteilles supprimées dont les IDs ne sont pas connus.
+     */
+    public void demander() {
+        balayageComplet.set(true);
+        programmer();
+    }
+
+    // Sans effet si un balayage est déjà en attente : il couvrira aussi cette demande
+    private void programmer() {
+        if (demande.compareAndSet(false, true)) {
+            executeur.execute(this::balayer);
+        }
+    }
+
+    /**
+     * Balayage synchrone des demandes reçues : avis des bouteilles connues, puis balayage complet s'il a été demandé.
+     * @return le nombre de bouteilles disparues dont les avis ont été supprimés.
+     */
+    public long balayer() {
+        // Les demandes arrivées après ce point seront couvertes par un nouveau balayage
+        demande.set(false);
+        long total = 0;
+        List<String> lot = new ArrayList<>(tailleLot);
+        try {
+            String bouteilleId;
+            while ((bouteilleId = bouteillesSupprimees.poll()) != null) {
+                lot.add(bouteilleId);
+                if (lot.size() == tailleLot) {
+                    total += supprimerAvis(lot);
+                }
+            }
+            total += supprimerAvis(lot);
+            if (balayageComplet.getAndSet(false)) {
+                total += balayerIndex();
+            }
+            log.info("Balayage des avis orphelins terminé : avis de {} bouteille(s) supprimés", total);
+        } catch (RuntimeException e) {
+            // Les bouteilles non traitées restent à traiter à la demande suivante
+            bouteillesSupprimees.addAll(lot);
+            log.error("Balayage des avis orphelins interrompu après {} bouteille(s)", total, e);
+        }
+        return total;
+    }
+
+    private int supprimerAvis(List<String> bouteilleIds) {
+        if (bouteilleIds.isEmpty()) {
+            return 0;
+        }
+        avisRepository.supprimerParBouteilles(bouteilleIds);
+        int traitees = bouteilleIds.size();
+        bouteillesTraitees.increment(traitees);
+        bouteilleIds.clear();
+        return traitees;
+    }
+
+    // Balayage complet de l'index 'bouteille', lot après lot ; interrompu, il sera repris du début à la demande suivante
+    private long balayerIndex() {
+        long total = 0;
+        String apres = null;
+        try {
+            LotOrphelins lot;
+            do {
+                lot = avisRepository.supprimerOrphelins(apres, tailleLot);
+                bouteillesTraitees.increment(lot.getBouteillesDisparues());
+                total += lot.getBouteillesDisparues();
+                apres = lot.getDerniereBouteille();
+            } while (!lot.isDernier());
+        } catch (RuntimeException e) {
+            balayageComplet.set(true);
+            throw e;
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executeur.shutdownNow();
+    }
+}
@@ -1,16 +1,29 @@
 package org.example.cavavin.service;
 
-import org.example.cavavin.bo.Bouteille;
 import org.example.cavavin.bo.Avis;
-import org.example.cavavin.controller.dto.BouteilleResumeDTO;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.example.cavavin.bo.BouteilleDetail;
+import org.example.cavavin.bo.BouteilleResume;
+import org.example.cavavin.bo.BouteillesFiltrees;
+import org.example.cavavin.bo.ResultatRecherche;
+import org.example.cavavin.controller.dto.AvisImportDTO;
+import org.example.cavavin.controller.dto.AvisImportResultatDTO;
+import org.example.cavavin.controller.dto.BouteilleModificationDTO;
+import org.example.cavavin.controller.dto.PageCurseurDTO;
+import org.example.cavavin.controller.dto.SuppressionMasseDTO;
+import org.example.cavavin.controller.dto.SuppressionMasseResultatDTO;
+import org.example.cavavin.service.exception.ParametreInvalideException;
 import org.example.cavavin.service.exception.ResourceNotFoundException;
+import org.example.cavavin.service.exception.VersionObsoleteException;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BouteilleService {
 
     /**
-     * Ajoute un Avis à une Bouteille existante de manière atomique (opération transactionnelle).
+     * Ajoute un Avis à une Bouteille existante par un $push atomique sur la bouteille (sans transaction).
      * @param bouteilleId L'ID de la bouteille à mettre à jour.
      * @param commentaire Le contenu du nouvel avis.
      * @return Le nouvel objet Avis créé.
@@ -18,19 +31,115 @@ public interface BouteilleService {
      */
     Avis ajouterAvis(String bouteilleId, String commentaire) throws ResourceNotFoundException;
 
+    /**
+     * Ajoute des avis en masse (import d'une dégustation) : un contrôle d'existence des bouteilles,
+     * un $push groupé par bouteille et une insertion en masse non ordonnée des avis.
+     * Une erreur sur un avis n'interrompt pas l'import des autres.
+     * @param avis Les avis à ajouter (au plus 100 000 par appel).
+     * @return Un résultat par avis, dans le même ordre que la liste reçue.
+     * @throws ParametreInvalideException si la liste dépasse la taille maximale.
+     */
+    List<AvisImportResultatDTO> ajouterAvisEnMasse(List<AvisImportDTO> avis);
+
+    /**
+     * Écriture groupée d'avis déjà créés (ID généré, référence vers la bouteille), partagée par l'import en masse
+     * et par la file d'écriture différée : mêmes étapes que ajouterAvisEnMasse(), sans limite de taille.
+     * @return Un résultat par avis, dans le même ordre que la liste reçue.
+     */
+    List<AvisImportResultatDTO> ecrireAvis(List<Avis> avis);
+
+    /**
+     * Modifie les champs renseignés d'une Bouteille (verrouillage optimiste si une version est attendue).
+     * @param versionAttendue La version lue par le client (If-Match), ou null pour une modification inconditionnelle.
+     * @return La nouvelle version de la bouteille.
+     * @throws ResourceNotFoundException si la Bouteille n'existe pas.
+     * @throws VersionObsoleteException si la Bouteille a été modifiée depuis la version attendue.
+     */
+    long modifier(String id, Long versionAttendue, BouteilleModificationDTO modification)
+            throws ResourceNotFoundException, VersionObsoleteException;
+
     /**
      * Supprime une Bouteille et tous les Avis qui lui sont associés (suppression en cascade).
+     * La suppression de la bouteille est conditionnée par sa version, relue et retentée en cas d'écriture concurrente.
      * @param bouteilleId L'ID de la bouteille à supprimer.
      * @throws ResourceNotFoundException si la Bouteille n'existe pas.
+     * @throws org.springframework.dao.OptimisticLockingFailureException si les écritures concurrentes persistent.
      */
     void supprimerBouteilleEtAvisAssocies(String bouteilleId) throws ResourceNotFoundException;
 
+    /**
+     * Suppression en masse (déréférencement d'un producteur...) d'une liste d'IDs ou des bouteilles d'un filtre,
+     * sans lecture préalable des documents : un deleteMany sur 'bouteilles', puis un deleteMany ($in) sur 'avis'.
+     * En mode asynchrone, les avis sont supprimés après la réponse par le balayage des avis orphelins.
+     * @throws ParametreInvalideException si ni IDs ni critère ne sont fournis (ou les deux), ou au-delà de 100 000 bouteilles
+     * en mode synchrone.
+     */
+    SuppressionMasseResultatDTO supprimerEnMasse(SuppressionMasseDTO suppression);
+
     /**
      * Récupère toutes les bouteilles avec les régions chargées en mode Eager.
      */
     List<Bouteille> findAllWithRegionEagerly();
 
+    /**
+     * Récupère une page de bouteilles (région pré-chargée) par pagination par curseur.
+     * @param curseur Le curseur opaque retourné par la page précédente, ou null pour la première page.
+     * @param limit Le nombre maximum de bouteilles de la page (entre 1 et 500).
+     * @throws ParametreInvalideException si le curseur ou la limite sont invalides.
+     */
+    PageCurseurDTO<BouteilleAvecRegion> findPageWithRegionEagerly(String curseur, int limit);
+
     Bouteille findById(String id);
 
-    List<BouteilleResumeDTO> findAllResume();
+    /**
+     * Consultation détaillée : la bouteille, sa région et ses avis les plus récents, en une seule requête MongoDB.
+     * @param limiteAvis Le nombre maximum d'avis retournés (entre 1 et 500).
+     * @throws ResourceNotFoundException si la bouteille n'existe pas.
+     * @throws ParametreInvalideException si la limite est invalide.
+     */
+    BouteilleDetail findDetailById(String id, int limiteAvis) throws ResourceNotFoundException;
+
+    /**
+     * Recherche plein texte sur le nom des bouteilles et le commentaire de leurs avis, par pertinence décroissante.
+     * Une bouteille trouvée par ses avis porte le meilleur score de ses avis ; si elle est aussi trouvée par son nom,
+     * c'est le meilleur des deux scores qui est retenu.
+     * @param page Numéro de page (à partir de 0).
+     * @param taille Taille de la page ; page et taille sont bornées (au plus 1000 résultats parcourus).
+     * @throws ParametreInvalideException si la recherche est vide ou la pagination invalide.
+     */
+    List<ResultatRecherche> rechercher(String texte, int page, int taille);
+
+    /**
+     * Filtre du catalogue (critères optionnels) avec les décomptes par couleur, région et décennie, en une requête.
+     * @param page Numéro de page (à partir de 0).
+     * @param taille Taille de la page (entre 1 et 500) ; au plus 10 000 bouteilles parcourues.
+     * @throws ParametreInvalideException si un critère ou la pagination sont invalides.
+     */
+    BouteillesFiltrees filtrer(String couleur, Integer millesimeMin, Integer millesimeMax, String regionId,
+                               int page, int taille);
+
+    List<BouteilleResume> findAllResume();
+
+    /**
+     * Variante en flux de findAllResume() : les résumés sont produits un par un depuis le curseur MongoDB,
+     * sans matérialiser la liste complète.
+     * Le Stream DOIT être fermé par l'appelant (try-with-resources).
+     */
+    Stream<BouteilleResume> streamAllResume();
+
+    /**
+     * Export du catalogue complet (bouteilles, régions et tous les avis), produit bouteille par bouteille
+     * depuis le curseur d'une seule agrégation : mémoire constante quel que soit le nombre d'avis.
+     * Le Stream DOIT être fermé par l'appelant (try-with-resources).
+     */
+    Stream<BouteilleDetail> streamExport();
+
+    /**
+     * Suggestions de noms pour la saisie (auto-complétion) : les noms qui commencent par le préfixe,
+     * sans tenir compte de la casse ni des accents, par ordre alphabétique. Servies depuis la mémoire (SuggestionsNoms).
+     * @param prefixe Le début du nom saisi (non vide).
+     * @param limite Nombre maximal de suggestions (entre 1 et 50).
+     * @throws ParametreInvalideException si le préfixe est vide ou la limite hors bornes.
+     */
+    List<String> suggerer(String prefixe, int limite);
 }
\ No newline at end of file
@@ -1,80 +1,395 @@
 package org.example.cavavin.service;
 
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.example.cavavin.bo.Avis;
 import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.example.cavavin.bo.BouteilleDetail;
 import org.example.cavavin.bo.BouteilleResume;
-import org.example.cavavin.controller.dto.BouteilleResumeDTO;
+import org.example.cavavin.bo.BouteillesFiltrees;
+import org.example.cavavin.bo.Couleur;
+import org.example.cavavin.bo.Region;
+import org.example.cavavin.bo.ResultatRecherche;
+import org.example.cavavin.controller.dto.AvisImportDTO;
+import org.example.cavavin.controller.dto.AvisImportResultatDTO;
+import org.example.cavavin.controller.dto.BouteilleModificationDTO;
+import org.example.cavavin.controller.dto.PageCurseurDTO;
+import org.example.cavavin.controller.dto.SuppressionMasseDTO;
+import org.example.cavavin.controller.dto.SuppressionMasseResultatDTO;
 import org.example.cavavin.dal.AvisRepository;
 import org.example.cavavin.dal.BouteilleRepository;
+import org.example.cavavin.dal.ErreurEcriture;
+import org.example.cavavin.service.exception.ParametreInvalideException;
 import org.example.cavavin.service.exception.ResourceNotFoundException;
+import org.example.cavavin.service.exception.VersionObsoleteException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 // Cette annotation marque la classe comme un bean de service Spring
 @Service
+@Slf4j
+// Chaque opération est chronométrée (timer cavavin.service.bouteilles, tags class/method/exception).
+// Pour streamAllResume(), seule l'ouverture du curseur est mesurée : la lecture a lieu pendant la réponse HTTP.
+@Timed(value = "cavavin.service.bouteilles", histogram = true)
 public class BouteilleServiceImpl implements BouteilleService {
 
+    // Borne la taille d'un import d'avis (mémoire de la requête et du résultat)
+    static final int TAILLE_IMPORT_AVIS_MAX = 100_000;
+
+    // Borne la profondeur de la recherche plein texte : chaque classement lit au plus ce nombre de résultats
+    static final int PROFONDEUR_RECHERCHE_MAX = 1000;
+
+    // Borne le $skip du filtre du catalogue (au-delà, le coût d'une page croît avec sa profondeur)
+    static final int PROFONDEUR_FILTRE_MAX = 10_000;
+
+    // Borne la suppression en masse synchrone (taille du $in et durée de la requête) ; au-delà, mode asynchrone
+    static final int TAILLE_SUPPRESSION_MAX = 100_000;
+
+    // Borne le nombre de suggestions d'une saisie
+    static final int SUGGESTIONS_MAX = 50;
+
+    // Nombre de tentatives de la suppression en cascade face à des écritures concurrentes sur la bouteille
+    static final int TENTATIVES_SUPPRESSION = 3;
+
     private final BouteilleRepository bouteilleRepository;
     private final AvisRepository avisRepository;
+    private final BalayageAvisOrphelins balayageAvisOrphelins;
+    // Publie BouteillesModifieesEvent après chaque écriture (invalidation des caches de lecture)
+    private final ApplicationEventPublisher eventPublisher;
+    // Requêtes lancées en parallèle (recherche) : threads virtuels avec le profil "virtual", pool borné sinon
+    private final AsyncTaskExecutor executeur;
+    // Statistiques incrémentales (bouteilles et avis par région, couleur et millésime)
+    private final StatistiquesService statistiquesService;
+    // Noms en mémoire pour les suggestions, tenus à jour par les écritures qui changent un nom
+    private final SuggestionsNoms suggestionsNoms;
 
     @Autowired
-    public BouteilleServiceImpl(BouteilleRepository bouteilleRepository, AvisRepository avisRepository) {
+    public BouteilleServiceImpl(BouteilleRepository bouteilleRepository, AvisRepository avisRepository,
+                                BalayageAvisOrphelins balayageAvisOrphelins, ApplicationEventPublisher eventPublisher,
+                                @Qualifier("applicationTaskExecutor") AsyncTaskExecutor executeur,
+                                StatistiquesService statistiquesService, SuggestionsNoms suggestionsNoms) {
         this.bouteilleRepository = bouteilleRepository;
         this.avisRepository = avisRepository;
+        this.balayageAvisOrphelins = balayageAvisOrphelins;
+        this.eventPublisher = eventPublisher;
+        this.executeur = executeur;
+        this.statistiquesService = statistiquesService;
+        this.suggestionsNoms = suggestionsNoms;
     }
 
     // --- Opération 1 : Ajout Atomique d'Avis ---
     @Override
-    @Transactional // CLÉ : Assure que les deux écritures (Avis et Bouteille) sont atomiques
     public Avis ajouterAvis(String bouteilleId, String commentaire) throws ResourceNotFoundException {
-        // 1. Trouver la Bouteille ou lever une exception
-        Bouteille bouteille = bouteilleRepository.findById(bouteilleId)
+        // 1. Créer le nouvel Avis avec un ID généré côté client, pour pouvoir le référencer avant son insertion.
+        Avis nouvelAvis = nouvelAvis(bouteilleId, commentaire);
+
+        // 2. $push ciblé de l'ID de l'Avis sur la Bouteille, avec le compteur et les derniers avis
+        // (première écriture, atomique sur le document).
+        // Sert aussi de contrôle d'existence : aucune lecture préalable de la Bouteille.
+        // La même écriture retourne les groupes de la bouteille, pour les statistiques.
+        Bouteille bouteille = bouteilleRepository.pushAvis(bouteilleId, nouvelAvis)
                 .orElseThrow(() -> new ResourceNotFoundException("Bouteille", bouteilleId));
+        eventPublisher.publishEvent(new BouteillesModifieesEvent(bouteilleId));
+        statistiquesService.enregistrer(new VariationsStatistiques().bouteille(bouteille, 0, 1));
+
+        // 3. Insérer l'Avis (deuxième écriture).
+        // Si elle échoue, l'ajout est compensé sur la Bouteille (ID, compteur, derniers avis) et dans les statistiques :
+        // aucune transaction multi-documents n'est nécessaire.
+        Avis insere;
+        try {
+            insere = avisRepository.insert(nouvelAvis);
+        } catch (RuntimeException e) {
+            compenserAjoutsAvis(Map.of(bouteilleId, List.of(nouvelAvis)), Map.of(bouteilleId, bouteille), e);
+            throw e;
+        }
+
+        // 4. Nouvelle version (ETag) une fois l'avis lisible : celle du $push a pu être lue sans l'avis
+        incrementerVersions(List.of(bouteilleId));
+        return insere;
+    }
+
+    // --- Opération 1 bis : Ajout d'Avis en masse ---
+    @Override
+    public List<AvisImportResultatDTO> ajouterAvisEnMasse(List<AvisImportDTO> imports) {
+        if (imports.size() > TAILLE_IMPORT_AVIS_MAX) {
+            throw new ParametreInvalideException("Au plus " + TAILLE_IMPORT_AVIS_MAX + " avis par import : " + imports.size());
+        }
+        AvisImportResultatDTO[] resultats = new AvisImportResultatDTO[imports.size()];
+
+        // 1. Validation et création des Avis (IDs générés côté client)
+        List<Avis> aEcrire = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < imports.size(); i++) {
+            AvisImportDTO avisImport = imports.get(i);
+            if (avisImport.getBouteilleId() == null) {
+                resultats[i] = new AvisImportResultatDTO(i, null, null,
+                        AvisImportResultatDTO.Statut.BOUTEILLE_INTROUVABLE, "Bouteille non trouvée");
+            } else if (avisImport.getCommentaire() == null) {
+                resultats[i] = new AvisImportResultatDTO(i, avisImport.getBouteilleId(), null,
+                        AvisImportResultatDTO.Statut.ERREUR, "Le commentaire est obligatoire");
+            } else {
+                aEcrire.add(nouvelAvis(avisImport.getBouteilleId(), avisImport.getCommentaire()));
+                positions.add(i);
+            }
+        }
+
+        // 2. Écriture groupée, résultats replacés à la position de l'avis dans l'import
+        List<AvisImportResultatDTO> ecrits = ecrireAvis(aEcrire);
+        for (int j = 0; j < ecrits.size(); j++) {
+            int i = positions.get(j);
+            AvisImportResultatDTO ecrit = ecrits.get(j);
+            resultats[i] = new AvisImportResultatDTO(i, ecrit.getBouteilleId(), ecrit.getAvisId(), ecrit.getStatut(), ecrit.getMessage());
+        }
+        return Arrays.asList(resultats);
+    }
+
+    @Override
+    public List<AvisImportResultatDTO> ecrireAvis(List<Avis> avis) {
+        List<AvisImportResultatDTO> resultats = new ArrayList<>(avis.size());
+
+        // 0. IDs de bouteille normalisés (hexadécimal minuscule, comme Bouteille::getId) : "65AB..." et "65ab..."
+        // désignent la même bouteille, et doivent être regroupés et retrouvés comme tels
+        avis.forEach(a -> a.getBouteille().setId(idNormalise(a.getBouteille().getId())));
+
+        // 1. Contrôle d'existence de toutes les bouteilles ciblées en une seule requête (avec leurs groupes, pour les statistiques)
+        Map<String, Bouteille> bouteillesExistantes = bouteilleRepository.findChampsStatistiques(avis.stream()
+                        .map(a -> a.getBouteille().getId())
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Bouteille::getId, bouteille -> bouteille));
+
+        // 2. Avis retenus, regroupés par bouteille
+        List<Avis> aInserer = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        Map<String, List<Avis>> avisParBouteille = new HashMap<>();
+        for (int i = 0; i < avis.size(); i++) {
+            String bouteilleId = avis.get(i).getBouteille().getId();
+            if (!bouteillesExistantes.containsKey(bouteilleId)) {
+                resultats.add(new AvisImportResultatDTO(i, bouteilleId, null,
+                        AvisImportResultatDTO.Statut.BOUTEILLE_INTROUVABLE, "Bouteille non trouvée"));
+            } else {
+                resultats.add(null);
+                aInserer.add(avis.get(i));
+                positions.add(i);
+                avisParBouteille.computeIfAbsent(bouteilleId, id -> new ArrayList<>()).add(avis.get(i));
+            }
+        }
 
-        // 2. Créer le nouvel Avis et y injecter la référence de la Bouteille
-        Avis nouvelAvis = new Avis(commentaire, bouteille);
+        // 3. Une seule mise à jour ($push $each, $inc) par bouteille, même ordre d'écriture que ajouterAvis() (IDs avant documents)
+        bouteilleRepository.pushAvisGroupes(avisParBouteille);
+        if (!avisParBouteille.isEmpty()) {
+            eventPublisher.publishEvent(new BouteillesModifieesEvent(null));
+            VariationsStatistiques variations = new VariationsStatistiques();
+            avisParBouteille.forEach((bouteilleId, avisBouteille) ->
+                    variations.bouteille(bouteillesExistantes.get(bouteilleId), 0, avisBouteille.size()));
+            statistiquesService.enregistrer(variations);
+        }
 
-        // 3. Sauvegarder l'Avis (première écriture)
-        nouvelAvis = avisRepository.save(nouvelAvis);
+        // 4. Insertion en masse non ordonnée des Avis ; les avis non insérés sont retirés de leur bouteille
+        Map<Integer, ErreurEcriture> erreurs;
+        try {
+            erreurs = avisRepository.insertAllUnordered(aInserer);
+        } catch (RuntimeException e) {
+            compenserAjoutsAvis(avisParBouteille, bouteillesExistantes, e);
+            throw e;
+        }
+        Map<String, List<Avis>> nonInseres = new HashMap<>();
+        Set<String> bouteillesAvecInseres = new HashSet<>();
+        for (int j = 0; j < aInserer.size(); j++) {
+            int i = positions.get(j);
+            Avis insere = aInserer.get(j);
+            ErreurEcriture erreur = erreurs.get(j);
+            if (erreur == null) {
+                resultats.set(i, new AvisImportResultatDTO(i, insere.getBouteille().getId(), insere.getId(), AvisImportResultatDTO.Statut.CREE, null));
+                bouteillesAvecInseres.add(insere.getBouteille().getId());
+            } else {
+                resultats.set(i, new AvisImportResultatDTO(i, insere.getBouteille().getId(), null, AvisImportResultatDTO.Statut.ERREUR, erreur.getMessage()));
+                nonInseres.computeIfAbsent(insere.getBouteille().getId(), id -> new ArrayList<>()).add(insere);
+            }
+        }
+        // 5. Nouvelle version (ETag) des bouteilles dont les avis sont lisibles, comme dans ajouterAvis()
+        incrementerVersions(bouteillesAvecInseres);
+        if (!nonInseres.isEmpty()) {
+            compenserAjoutsAvis(nonInseres, bouteillesExistantes, null);
+        }
+        return resultats;
+    }
 
-        // 4. Mettre à jour la Bouteille pour y ajouter l'ID du nouvel Avis
-        // Spring Data gère automatiquement la liste d'IDs grâce à @DocumentReference
-        // Si la liste est null, on l'initialise.
-        List<Avis> avisList = bouteille.getAvis();
-        if (avisList == null || avisList.isEmpty()) {
-            bouteille.setAvis(List.of(nouvelAvis));
-        } else {
-            avisList.add(nouvelAvis);
-            bouteille.setAvis(avisList);
+    /**
+     * Incrément de version après l'insertion des avis. Les avis sont écrits : un échec n'est pas propagé
+     * (l'appelant réessaierait, en dupliquant l'avis), l'ETag ne change alors qu'à la modification suivante.
+     */
+    private void incrementerVersions(Collection<String> bouteilleIds) {
+        try {
+            bouteilleRepository.incrementerVersions(bouteilleIds);
+        } catch (RuntimeException e) {
+            log.warn("Version non incrémentée après l'ajout d'avis sur {} bouteille(s)", bouteilleIds.size(), e);
+        }
+    }
+
+    /**
+     * Compensation des ajouts d'avis dont l'insertion a échoué : retrait des avis de leur bouteille
+     * (IDs, compteur, derniers avis), puis des statistiques.
+     * @param echec l'erreur d'insertion en cours de propagation, à laquelle un échec de la compensation est attaché.
+     */
+    private void compenserAjoutsAvis(Map<String, List<Avis>> nonInseres, Map<String, Bouteille> bouteilles, RuntimeException echec) {
+        try {
+            bouteilleRepository.retirerAvisGroupes(nonInseres);
+        } catch (RuntimeException e) {
+            if (echec == null) {
+                throw e;
+            }
+            echec.addSuppressed(e);
+            return;
+        }
+        eventPublisher.publishEvent(new BouteillesModifieesEvent(null));
+        VariationsStatistiques variations = new VariationsStatistiques();
+        nonInseres.forEach((bouteilleId, avis) -> variations.bouteille(bouteilles.get(bouteilleId), 0, -avis.size()));
+        statistiquesService.enregistrer(variations);
+    }
+
+    // --- Opération 1 ter : Modification (verrouillage optimiste) ---
+    @Override
+    public long modifier(String id, Long versionAttendue, BouteilleModificationDTO modification)
+            throws ResourceNotFoundException, VersionObsoleteException {
+        if (modification.getNom() == null && modification.getMillesime() == null
+                && modification.getCouleur() == null && modification.getRegionId() == null) {
+            throw new ParametreInvalideException("Aucun champ à modifier.");
+        }
+        if (modification.getRegionId() != null && !ObjectId.isValid(modification.getRegionId())) {
+            throw new ParametreInvalideException("ID de région invalide : " + modification.getRegionId());
         }
+        Couleur couleur = modification.getCouleur() == null ? null : new Couleur(modification.getCouleur());
 
-        // 5. Sauvegarder la Bouteille (deuxième écriture)
-        bouteilleRepository.save(bouteille);
+        // Une seule écriture conditionnelle : la lecture préalable n'a lieu que pour distinguer l'échec (404 ou 412)
+        Bouteille avant = bouteilleRepository.modifier(id, versionAttendue, modification.getNom(), modification.getMillesime(),
+                        couleur, modification.getRegionId())
+                .orElseThrow(() -> versionAttendue != null && bouteilleRepository.existsById(id)
+                        ? new VersionObsoleteException("Bouteille", id, versionAttendue)
+                        : new ResourceNotFoundException("Bouteille", id));
+        eventPublisher.publishEvent(new BouteillesModifieesEvent(id));
 
-        // Si une erreur survient entre l'étape 3 et 5, la transaction annule l'étape 3 (Rollback).
-        return nouvelAvis;
+        // La bouteille quitte ses anciens groupes pour les nouveaux (sans effet si ni région, ni couleur, ni millésime ne changent)
+        Bouteille apres = new Bouteille();
+        apres.setRegion(modification.getRegionId() != null ? referenceRegion(modification.getRegionId()) : avant.getRegion());
+        apres.setCouleur(couleur != null ? couleur : avant.getCouleur());
+        apres.setMillesime(modification.getMillesime() != null ? modification.getMillesime() : avant.getMillesime());
+        statistiquesService.enregistrer(new VariationsStatistiques()
+                .bouteille(avant, -1, -avant.getNbAvis())
+                .bouteille(apres, 1, avant.getNbAvis()));
+        if (modification.getNom() != null) {
+            suggestionsNoms.retirer(avant.getNom());
+            suggestionsNoms.ajouter(modification.getNom());
+        }
+
+        // Version retournée par l'écriture, avant son incrément (null : bouteille écrite avant le verrouillage optimiste)
+        return (avant.getVersion() == null ? 0 : avant.getVersion()) + 1;
     }
 
     // --- Opération 2 : Suppression en Cascade ---
     @Override
-    @Transactional // CLÉ : Assure que la suppression de l'Avis et de la Bouteille sont atomiques
     public void supprimerBouteilleEtAvisAssocies(String bouteilleId) throws ResourceNotFoundException {
-        // 1. Trouver la Bouteille ou lever une exception
-        Bouteille bouteille = bouteilleRepository.findById(bouteilleId)
-                .orElseThrow(() -> new ResourceNotFoundException("Bouteille", bouteilleId));
+        // Pas de transaction multi-documents : la suppression de la bouteille est conditionnée par sa version,
+        // et retentée (relecture comprise) si un ajout d'avis ou une modification s'est intercalé.
+        for (int tentative = 1; ; tentative++) {
+            // 1. Trouver la Bouteille ou lever une exception
+            Bouteille bouteille = bouteilleRepository.findById(bouteilleId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Bouteille", bouteilleId));
+
+            // 2. Suppression de la Bouteille (première écriture), si sa version n'a pas changé depuis la lecture :
+            // delete() d'une entité versionnée lève OptimisticLockingFailureException sinon
+            try {
+                bouteilleRepository.delete(bouteille);
+            } catch (OptimisticLockingFailureException e) {
+                if (tentative == TENTATIVES_SUPPRESSION) {
+                    throw e;
+                }
+                continue;
+            }
+
+            // 3. Suppression de tous les Avis liés (deuxième écriture).
+            // La bouteille n'existant plus, un ajout d'avis ultérieur échoue ($push sans correspondance : 404) ;
+            // seule l'insertion d'un avis dont le $push a précédé la suppression peut encore arriver après cette étape.
+            avisRepository.deleteByBouteille(bouteille);
+            eventPublisher.publishEvent(new BouteillesModifieesEvent(bouteilleId));
+            statistiquesService.enregistrer(new VariationsStatistiques().bouteille(bouteille, -1, -bouteille.getNbAvis()));
+            suggestionsNoms.retirer(bouteille.getNom());
+            return;
+        }
+    }
 
-        // 2. Suppression de tous les Avis liés (première écriture)
-        // Utilise la méthode deleteByBouteille du Repository pour une suppression efficace
-        avisRepository.deleteByBouteille(bouteille);
+    // --- Opération 2 bis : Suppression en masse ---
+    @Override
+    public SuppressionMasseResultatDTO supprimerEnMasse(SuppressionMasseDTO suppression) {
+        boolean parIds = suppression.getIds() != null;
+        boolean parFiltre = suppression.getCouleur() != null || suppression.getMillesimeMin() != null
+                || suppression.getMillesimeMax() != null || suppression.getRegionId() != null;
+        if (parIds == parFiltre) {
+            throw new ParametreInvalideException("Indiquer soit une liste d'IDs, soit au moins un critère de filtre.");
+        }
+        if (parIds && suppression.getIds().size() > TAILLE_SUPPRESSION_MAX) {
+            throw new ParametreInvalideException("Au plus " + TAILLE_SUPPRESSION_MAX + " IDs par suppression : " + suppression.getIds().size());
+        }
+        verifierFiltre(suppression.getMillesimeMin(), suppression.getMillesimeMax(), suppression.getRegionId());
 
-        // 3. Suppression de la Bouteille (deuxième écriture)
-        bouteilleRepository.delete(bouteille);
+        // Mode asynchrone : un seul deleteMany sur 'bouteilles' (aucune limite de volume), les avis suivent par balayage
+        if (suppression.isAsynchrone()) {
+            // Contribution des bouteilles visées aux statistiques, calculée par agrégation avant la suppression
+            VariationsStatistiques retrait = parIds
+                    ? statistiquesService.retraitParIds(suppression.getIds())
+                    : statistiquesService.retraitParFiltre(suppression.getCouleur(), suppression.getMillesimeMin(),
+                            suppression.getMillesimeMax(), suppression.getRegionId());
+            long bouteilles = parIds
+                    ? bouteilleRepository.supprimerParIds(suppression.getIds())
+                    : bouteilleRepository.supprimerParFiltre(suppression.getCouleur(), suppression.getMillesimeMin(),
+                            suppression.getMillesimeMax(), suppression.getRegionId());
+            // Avis supprimés par les IDs s'ils sont connus, sinon par un balayage de l'index 'bouteille' de 'avis'
+            if (parIds) {
+                balayageAvisOrphelins.demander(suppression.getIds());
+            } else {
+                balayageAvisOrphelins.demander();
+            }
+            eventPublisher.publishEvent(new BouteillesModifieesEvent(null));
+            statistiquesService.enregistrer(retrait);
+            // Les noms supprimés ne sont pas connus : les suggestions sont rechargées
+            suggestionsNoms.demanderRechargement();
+            return new SuppressionMasseResultatDTO(bouteilles, null, true);
+        }
 
-        // Si la suppression de la bouteille échoue, la suppression des avis est annulée.
+        // 1. Les IDs visés : fournis, ou lus par une projection sur _id (aucun document chargé)
+        List<String> ids = parIds ? suppression.getIds() : bouteilleRepository.findIdsParFiltre(suppression.getCouleur(),
+                suppression.getMillesimeMin(), suppression.getMillesimeMax(), suppression.getRegionId(), TAILLE_SUPPRESSION_MAX + 1);
+        if (ids.size() > TAILLE_SUPPRESSION_MAX) {
+            throw new ParametreInvalideException("Plus de " + TAILLE_SUPPRESSION_MAX + " bouteilles correspondent : utiliser le mode asynchrone.");
+        }
+
+        // 2. Les bouteilles d'abord : un avis ne peut plus leur être ajouté ($push sans correspondance), puis leurs avis
+        VariationsStatistiques retrait = statistiquesService.retraitParIds(ids);
+        long bouteilles = bouteilleRepository.supprimerParIds(ids);
+        long avis = avisRepository.supprimerParBouteilles(ids);
+        eventPublisher.publishEvent(new BouteillesModifieesEvent(null));
+        statistiquesService.enregistrer(retrait);
+        suggestionsNoms.demanderRechargement();
+        return new SuppressionMasseResultatDTO(bouteilles, avis, false);
     }
 
     // --- Opération 3 : Lecture Optimisée (Simple délégation pour l'Eager Loading) ---
@@ -84,6 +399,21 @@ public class BouteilleServiceImpl implements BouteilleService {
         return bouteilleRepository.findAllWithRegionEagerly();
     }
 
+    // --- Opération 3 bis : Lecture paginée par curseur (keyset) ---
+    @Override
+    public PageCurseurDTO<BouteilleAvecRegion> findPageWithRegionEagerly(String curseur, int limit) {
+        CurseurPagination.verifierLimite(limit);
+        String apresId = CurseurPagination.decoder(curseur);
+
+        // On demande un élément de plus que la limite pour savoir s'il existe une page suivante
+        List<BouteilleAvecRegion> bouteilles = bouteilleRepository.findPageWithRegionEagerly(apresId, limit + 1);
+        if (bouteilles.size() <= limit) {
+            return new PageCurseurDTO<>(bouteilles, null);
+        }
+        List<BouteilleAvecRegion> page = bouteilles.subList(0, limit);
+        return new PageCurseurDTO<>(page, CurseurPagination.encoder(page.get(limit - 1).getId()));
+    }
+
     // --- Opération 4 : Consultation détaillée ---
     @Override
     public Bouteille findById(String id) throws ResourceNotFoundException {
@@ -92,15 +422,154 @@ public class BouteilleServiceImpl implements BouteilleService {
                 .orElseThrow(() -> new ResourceNotFoundException("Bouteille", id));
     }
 
-    // --- Opération 5 : Projection de Performance (Mapping vers DTO) ---
     @Override
-    public List<BouteilleResumeDTO> findAllResume() {
-        // Délégation au Repository pour obtenir la projection (interface)
-        List<BouteilleResume> resumes = bouteilleRepository.findAllBy(); // Suppose que BouteilleRepository a findAllBy()
+    public BouteilleDetail findDetailById(String id, int limiteAvis) throws ResourceNotFoundException {
+        CurseurPagination.verifierLimite(limiteAvis);
+        return bouteilleRepository.findDetailById(id, limiteAvis)
+                .orElseThrow(() -> new ResourceNotFoundException("Bouteille", id));
+    }
+
+    // --- Opération 4 bis : Recherche plein texte ---
+    @Override
+    public List<ResultatRecherche> rechercher(String texte, int page, int taille) {
+        if (texte == null || texte.isBlank()) {
+            throw new ParametreInvalideException("La recherche ne doit pas être vide.");
+        }
+        CurseurPagination.verifierLimite(taille);
+        if (page < 0 || (long) (page + 1) * taille > PROFONDEUR_RECHERCHE_MAX) {
+            throw new ParametreInvalideException("La recherche est limitée aux " + PROFONDEUR_RECHERCHE_MAX + " premiers résultats.");
+        }
+
+        // Deux classements indexés (un index texte par collection), chacun tronqué à la fin de la page demandée,
+        // lus en parallèle : la latence est celle de la plus lente des deux requêtes
+        int limite = (page + 1) * taille;
+        CompletableFuture<List<ResultatRecherche>> parAvis = CompletableFuture.supplyAsync(
+                () -> bouteilleRepository.rechercherParAvis(texte, limite), executeur);
+        List<ResultatRecherche> parNom;
+        try {
+            parNom = bouteilleRepository.rechercherParNom(texte, limite);
+        } catch (RuntimeException e) {
+            parAvis.cancel(false);
+            throw e;
+        }
+        return fusionnerClassements(parNom, resultat(parAvis), page * taille, taille);
+    }
+
+    // Résultat d'une requête lancée en parallèle ; son exception d'origine est relancée telle quelle
+    private static <T> T resultat(CompletableFuture<T> requete) {
+        try {
+            return requete.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Fusion des classements par nom et par avis, triés par score décroissant puis _id, chacun tronqué aux
+     * {@code debut + taille} premiers : le score d'une bouteille étant le maximum de ses deux scores, toute bouteille
+     * du top {@code debut + taille} global figure dans l'un des deux classements tronqués. La fusion est donc exacte.
+     */
+    static List<ResultatRecherche> fusionnerClassements(List<ResultatRecherche> parNom, List<ResultatRecherche> parAvis,
+                                                        int debut, int taille) {
+        Map<String, ResultatRecherche> resultatsParId = new HashMap<>();
+        parNom.forEach(resultat -> resultatsParId.put(resultat.getId(), resultat));
+        parAvis.forEach(resultat -> resultatsParId.merge(resultat.getId(), resultat, (parSonNom, parSesAvis) -> {
+            parSonNom.setScore(Math.max(parSonNom.getScore(), parSesAvis.getScore()));
+            parSonNom.setAvisCorrespondants(parSesAvis.getAvisCorrespondants());
+            return parSonNom;
+        }));
+
+        return resultatsParId.values().stream()
+                .sorted(Comparator.comparingDouble(ResultatRecherche::getScore).reversed()
+                        .thenComparing(ResultatRecherche::getId))
+                .skip(debut)
+                .limit(taille)
+                .toList();
+    }
+
+    // --- Opération 4 ter : Filtre du catalogue avec facettes ---
+    @Override
+    public BouteillesFiltrees filtrer(String couleur, Integer millesimeMin, Integer millesimeMax, String regionId,
+                                      int page, int taille) {
+        CurseurPagination.verifierLimite(taille);
+        if (page < 0 || (long) (page + 1) * taille > PROFONDEUR_FILTRE_MAX) {
+            throw new ParametreInvalideException("Le filtre est limité aux " + PROFONDEUR_FILTRE_MAX + " premiers résultats.");
+        }
+        verifierFiltre(millesimeMin, millesimeMax, regionId);
+        return bouteilleRepository.filtrer(couleur, millesimeMin, millesimeMax, regionId, page * taille, taille);
+    }
+
+    private static void verifierFiltre(Integer millesimeMin, Integer millesimeMax, String regionId) {
+        if (regionId != null && !ObjectId.isValid(regionId)) {
+            throw new ParametreInvalideException("ID de région invalide : " + regionId);
+        }
+        if (millesimeMin != null && millesimeMax != null && millesimeMin > millesimeMax) {
+            throw new ParametreInvalideException("Intervalle de millésimes invalide : " + millesimeMin + " > " + millesimeMax);
+        }
+    }
+
+    // --- Opération 5 : Projection de Performance (projection de classe) ---
+    @Override
+    public List<BouteilleResume> findAllResume() {
+        // Les résumés sont lus directement depuis le BSON : retournés tels quels, sans copie vers un DTO
+        return bouteilleRepository.findAllBy();
+    }
+
+    // --- Opération 5 bis : Projection en flux (curseur MongoDB) ---
+    @Override
+    public Stream<BouteilleResume> streamAllResume() {
+        // Lecture paresseuse : un seul résumé est en mémoire à la fois
+        return bouteilleRepository.streamAllBy();
+    }
+
+    // --- Opération 5 ter : Export du catalogue (curseur d'agrégation) ---
+    @Override
+    public Stream<BouteilleDetail> streamExport() {
+        // Comme streamAllResume(), seule l'ouverture du curseur est chronométrée
+        return bouteilleRepository.streamExport();
+    }
+
+    // --- Opération 5 quater : Suggestions de noms (auto-complétion) ---
+    @Override
+    public List<String> suggerer(String prefixe, int limite) {
+        if (prefixe == null || prefixe.isBlank()) {
+            throw new ParametreInvalideException("Le préfixe ne doit pas être vide.");
+        }
+        if (limite < 1 || limite > SUGGESTIONS_MAX) {
+            throw new ParametreInvalideException("La limite doit être comprise entre 1 et " + SUGGESTIONS_MAX + " : " + limite);
+        }
+        return suggestionsNoms.suggerer(prefixe, limite);
+    }
+
+    /**
+     * Nouvel avis, avec son ID généré côté client (il est référencé par la bouteille avant son insertion).
+     * La référence vers la Bouteille n'a besoin que de son ID (@DocumentReference n'écrit que l'ID).
+     */
+    static Avis nouvelAvis(String bouteilleId, String commentaire) {
+        Avis avis = new Avis(commentaire, referenceVers(bouteilleId));
+        avis.setId(new ObjectId().toHexString());
+        return avis;
+    }
+
+    // Forme canonique d'un ObjectId ; un ID qui n'en est pas un est laissé tel quel (il ne correspond à aucune bouteille)
+    private static String idNormalise(String id) {
+        return id != null && ObjectId.isValid(id) ? new ObjectId(id).toHexString() : id;
+    }
+
+    // Référence vers une bouteille par son seul ID : suffit pour écrire le @DocumentReference de l'Avis
+    private static Bouteille referenceVers(String bouteilleId) {
+        Bouteille reference = new Bouteille();
+        reference.setId(bouteilleId);
+        return reference;
+    }
 
-        // Conversion de l'interface de projection Spring Data vers le DTO de classe concrète pour l'API REST
-        return resumes.stream()
-                .map(BouteilleResumeDTO::new)
-                .collect(Collectors.toList());
+    // Référence vers une région par son seul ID : suffit pour les groupes des statistiques
+    private static Region referenceRegion(String regionId) {
+        Region reference = new Region();
+        reference.setId(regionId);
+        return reference;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package org.example.cavavin.service;
+
+/**
+ * Événement publié après chaque écriture sur les bouteilles par les services (ajout d'avis, modification,
+ * suppression, import) : les caches de lecture qui en dépendent s'invalident à sa réception.
+ */
+public class BouteillesModifieesEvent {
+
+    // ID de la bouteille modifiée, ou null si l'écriture en concerne plusieurs
+    private final String bouteilleId;
+
+    public BouteillesModifieesEvent(String bouteilleId) {
+        this.bouteilleId = bouteilleId;
+    }
+
+    public String getBouteilleId() {
+        return bouteilleId;
+    }
+}
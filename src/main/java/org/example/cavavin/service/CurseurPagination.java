@@ -0,0 +1,43 @@
+package org.example.cavavin.service;
+
+import org.bson.types.ObjectId;
+import org.example.cavavin.service.exception.ParametreInvalideException;
+
+import java.util.Base64;
+
+/**
+ * Encodage du curseur de pagination, commun aux services bloquant et réactif.
+ * Le curseur est l'_id (12 octets) encodé en Base64 URL : opaque pour le client, sans état côté serveur.
+ */
+final class CurseurPagination {
+
+    // Borne la taille d'une page pour garder une latence et une empreinte mémoire constantes
+    static final int TAILLE_PAGE_MAX = 500;
+
+    private CurseurPagination() {
+    }
+
+    static void verifierLimite(int limit) {
+        if (limit < 1 || limit > TAILLE_PAGE_MAX) {
+            throw new ParametreInvalideException("La limite doit être comprise entre 1 et " + TAILLE_PAGE_MAX + " : " + limit);
+        }
+    }
+
+    static String encoder(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(new ObjectId(id).toByteArray());
+    }
+
+    /**
+     * @return l'_id (hexadécimal) porté par le curseur, ou null pour la première page.
+     */
+    static String decoder(String curseur) {
+        if (curseur == null) {
+            return null;
+        }
+        try {
+            return new ObjectId(Base64.getUrlDecoder().decode(curseur)).toHexString();
+        } catch (IllegalArgumentException e) {
+            throw new ParametreInvalideException("Curseur de pagination invalide : " + curseur, e);
+        }
+    }
+}
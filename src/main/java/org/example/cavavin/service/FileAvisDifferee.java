@@ -0,0 +1,282 @@
+package org.example.cavavin.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cavavin.bo.Avis;
+import org.example.cavavin.controller.dto.AvisImportResultatDTO;
+import org.example.cavavin.service.exception.EcritureAvisExpireeException;
+import org.example.cavavin.service.exception.FileAvisPleineException;
+import org.example.cavavin.service.exception.ParametreInvalideException;
+import org.example.cavavin.service.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Écriture différée des avis (POST /api/bouteilles/{id}/avis), activée par cavavin.avis.ecriture-differee.actif.
+ * Les avis sont placés dans une file bornée, puis écrits par un thread dédié en lots d'au plus taille-lot avis,
+ * au plus tard intervalle après le premier avis du lot : une écriture groupée par lot (BouteilleService.ecrireAvis :
+ * un $push par bouteille et une insertion en masse) au lieu de deux écritures par avis.
+ * <p>
+ * Acquittement :
+ * <ul>
+ *     <li>MISE_EN_FILE : la requête rend la main dès l'avis placé dans la file (202). Un avis en attente est perdu
+ *     si l'instance s'arrête brutalement, et un avis sur une bouteille inexistante est abandonné à l'écriture.</li>
+ *     <li>ECRITURE : la requête attend l'écriture de son lot (201, ou 404 si la bouteille n'existe pas), au plus
+ *     delai-acquittement (puis EcritureAvisExpireeException : 503) ; le gain vient du regroupement des écritures
+ *     de requêtes concurrentes.</li>
+ * </ul>
+ * File pleine : FileAvisPleineException (429), sans attente. À l'arrêt, les avis en attente sont écrits avant la fin ;
+ * ceux qui restent quand l'écrivain s'arrête (interruption, délai d'arrêt dépassé) sont abandonnés.
+ * Métriques : cavavin.avis.differes.file (avis en attente), cavavin.avis.differes.ecriture (durée d'écriture d'un lot),
+ * cavavin.avis.differes.rejets (file pleine) et cavavin.avis.differes.abandons (avis non écrits).
+ */
+@Slf4j
+@Component
+public class FileAvisDifferee {
+
+    public enum Acquittement {
+        MISE_EN_FILE,
+        ECRITURE
+    }
+
+    // Avis en attente d'écriture, et son résultat attendu par la requête (acquittement ECRITURE)
+    private static final class AvisEnAttente {
+        private final Avis avis;
+        private final CompletableFuture<Avis> ecrit = new CompletableFuture<>();
+
+        private AvisEnAttente(Avis avis) {
+            this.avis = avis;
+        }
+    }
+
+    private final BouteilleService bouteilleService;
+    private final boolean actif;
+    private final Acquittement acquittement;
+    private final int capacite;
+    private final int tailleLot;
+    private final Duration intervalle;
+    private final Duration delaiAcquittement;
+
+    private final BlockingQueue<AvisEnAttente> file;
+    private final Timer ecritures;
+    private final Counter rejets;
+    private final Counter abandons;
+
+    // Un seul écrivain, sur un thread dédié
+    private final ExecutorService executeur = Executors.newSingleThreadExecutor(tache -> {
+        Thread thread = new Thread(tache, "ecriture-avis-differee");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean arrete;
+    // L'écrivain ne prend plus d'avis dans la file : ceux qui y sont placés ensuite sont abandonnés
+    private volatile boolean termine;
+
+    @Autowired
+    public FileAvisDifferee(BouteilleService bouteilleService, MeterRegistry meterRegistry,
+                            @Value("${cavavin.avis.ecriture-differee.actif:false}") boolean actif,
+                            @Value("${cavavin.avis.ecriture-differee.acquittement:MISE_EN_FILE}") Acquittement acquittement,
+                            @Value("${cavavin.avis.ecriture-differee.capacite:10000}") int capacite,
+                            @Value("${cavavin.avis.ecriture-differee.taille-lot:500}") int tailleLot,
+                            @Value("${cavavin.avis.ecriture-differee.intervalle:50ms}") Duration intervalle,
+                            @Value("${cavavin.avis.ecriture-differee.delai-acquittement:5s}") Duration delaiAcquittement) {
+        this.bouteilleService = bouteilleService;
+        this.actif = actif;
+        this.acquittement = acquittement;
+        this.capacite = capacite;
+        this.tailleLot = tailleLot;
+        this.intervalle = intervalle;
+        this.delaiAcquittement = delaiAcquittement;
+        this.file = new ArrayBlockingQueue<>(capacite);
+        meterRegistry.gauge("cavavin.avis.differes.file", file, BlockingQueue::size);
+        this.ecritures = Timer.builder("cavavin.avis.differes.ecriture")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejets = meterRegistry.counter("cavavin.avis.differes.rejets");
+        this.abandons = meterRegistry.counter("cavavin.avis.differes.abandons");
+    }
+
+    public boolean isActif() {
+        return actif;
+    }
+
+    public Acquittement getAcquittement() {
+        return acquittement;
+    }
+
+    @PostConstruct
+    public void demarrer() {
+        if (actif) {
+            executeur.execute(this::ecrireEnContinu);
+        }
+    }
+
+    /**
+     * Place un avis dans la file. Avec l'acquittement ECRITURE, attend l'écriture de son lot.
+     * @return l'avis, avec son ID (déjà attribué : il ne change pas à l'écriture).
+     * @throws FileAvisPleineException si la file est pleine ou arrêtée.
+     * @throws ResourceNotFoundException (acquittement ECRITURE) si la bouteille n'existe pas.
+     * @throws EcritureAvisExpireeException (acquittement ECRITURE) si l'écriture n'est pas confirmée dans le délai :
+     * l'avis n'est pas écrit, sauf s'il était déjà en cours d'écriture (son ID est alors dans le message).
+     */
+    public Avis ajouter(String bouteilleId, String commentaire) {
+        if (commentaire == null) {
+            throw new ParametreInvalideException("Le commentaire est obligatoire");
+        }
+        AvisEnAttente enAttente = new AvisEnAttente(BouteilleServiceImpl.nouvelAvis(bouteilleId, commentaire));
+        // Un avis placé après la dernière lecture de la file par l'écrivain n'y serait jamais repris : il est retiré
+        if (arrete || !file.offer(enAttente) || (termine && file.remove(enAttente))) {
+            rejets.increment();
+            throw new FileAvisPleineException(capacite);
+        }
+        if (acquittement == Acquittement.MISE_EN_FILE) {
+            return enAttente.avis;
+        }
+        try {
+            return enAttente.ecrit.get(delaiAcquittement.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw expiration(enAttente);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw expiration(enAttente);
+        } catch (ExecutionException e) {
+            // Exception d'origine relancée telle quelle (404 pour une bouteille inexistante)
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Délai d'acquittement dépassé : un avis encore dans la file en est retiré, le 503 signifie alors "non écrit"
+    // (un nouvel essai ne crée pas de doublon) ; un avis déjà pris dans un lot peut encore être écrit, son ID est indiqué
+    private EcritureAvisExpireeException expiration(AvisEnAttente enAttente) {
+        if (file.remove(enAttente)) {
+            abandonner(List.of(enAttente), new IllegalStateException("Délai d'acquittement de l'avis dépassé"));
+            return new EcritureAvisExpireeException(delaiAcquittement);
+        }
+        return new EcritureAvisExpireeException(delaiAcquittement, enAttente.avis.getId());
+    }
+
+    // Boucle de l'écrivain : un lot est écrit dès qu'il est plein, ou intervalle après son premier avis.
+    // Une erreur d'écriture fait échouer le lot en cours, sans arrêter l'écrivain.
+    private void ecrireEnContinu() {
+        List<AvisEnAttente> lot = new ArrayList<>(tailleLot);
+        try {
+            while (!arrete || !file.isEmpty()) {
+                AvisEnAttente premier = file.poll(intervalle.toNanos(), TimeUnit.NANOSECONDS);
+                if (premier == null) {
+                    continue;
+                }
+                lot.add(premier);
+                long echeance = System.nanoTime() + intervalle.toNanos();
+                while (lot.size() < tailleLot) {
+                    file.drainTo(lot, tailleLot - lot.size());
+                    long restant = echeance - System.nanoTime();
+                    if (lot.size() == tailleLot || restant <= 0) {
+                        break;
+                    }
+                    AvisEnAttente suivant = file.poll(restant, TimeUnit.NANOSECONDS);
+                    if (suivant == null) {
+                        break;
+                    }
+                    lot.add(suivant);
+                }
+                try {
+                    ecrire(lot);
+                } catch (Throwable e) {
+                    log.error("Écriture d'un lot de {} avis en échec", lot.size(), e);
+                    abandonner(lot, new IllegalStateException("Écriture de l'avis en échec", e));
+                }
+                lot.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Avis du lot en cours et avis restés dans la file : plus aucun écrivain ne les reprendra
+            termine = true;
+            file.drainTo(lot);
+            abandonner(lot, new IllegalStateException("Écriture différée des avis arrêtée"));
+        }
+    }
+
+    /**
+     * Écrit un lot et transmet à chaque requête en attente le résultat de son avis.
+     */
+    private void ecrire(List<AvisEnAttente> lot) {
+        List<Avis> avis = lot.stream().map(enAttente -> enAttente.avis).toList();
+        List<AvisImportResultatDTO> resultats;
+        try {
+            resultats = ecritures.record(() -> bouteilleService.ecrireAvis(avis));
+        } catch (RuntimeException e) {
+            log.error("Écriture d'un lot de {} avis en échec", lot.size(), e);
+            abandonner(lot, e);
+            return;
+        }
+        for (int i = 0; i < lot.size(); i++) {
+            AvisImportResultatDTO resultat = resultats.get(i);
+            CompletableFuture<Avis> ecrit = lot.get(i).ecrit;
+            switch (resultat.getStatut()) {
+                case CREE -> ecrit.complete(avis.get(i));
+                case BOUTEILLE_INTROUVABLE -> {
+                    abandons.increment();
+                    ecrit.completeExceptionally(new ResourceNotFoundException("Bouteille", resultat.getBouteilleId()));
+                }
+                case ERREUR -> {
+                    abandons.increment();
+                    log.warn("Avis {} non écrit : {}", avis.get(i).getId(), resultat.getMessage());
+                    ecrit.completeExceptionally(new IllegalStateException(resultat.getMessage()));
+                }
+            }
+        }
+    }
+
+    // Fait échouer les avis du lot dont le résultat n'a pas encore été transmis
+    private void abandonner(List<AvisEnAttente> lot, RuntimeException cause) {
+        for (AvisEnAttente enAttente : lot) {
+            if (enAttente.ecrit.completeExceptionally(cause)) {
+                abandons.increment();
+            }
+        }
+    }
+
+    /**
+     * Refuse les nouveaux avis, puis attend l'écriture de ceux qui sont en attente (30 secondes au plus).
+     */
+    @PreDestroy
+    public void arreter() {
+        arrete = true;
+        executeur.shutdown();
+        try {
+            if (!executeur.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Arrêt : {} avis en attente non écrits", file.size());
+                executeur.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executeur.shutdownNow();
+        }
+        // Avis restés dans la file si l'écrivain n'a pas démarré, ou n'a pas fini dans le délai
+        termine = true;
+        List<AvisEnAttente> restants = new ArrayList<>();
+        file.drainTo(restants);
+        abandonner(restants, new IllegalStateException("Écriture différée des avis arrêtée"));
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.cavavin.service;
+
+import org.example.cavavin.controller.dto.ImportRapportDTO;
+import org.example.cavavin.service.exception.ParametreInvalideException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ImportService {
+
+    enum Format {
+        // En-tête obligatoire (nom, millesime, couleur, region), séparateur ',' ou ';'
+        CSV,
+        // Un objet JSON par ligne : { "nom": ..., "millesime": ..., "couleur": ..., "region": ... }
+        NDJSON
+    }
+
+    /**
+     * Importe un catalogue de bouteilles lu au fil de l'eau : la mémoire utilisée ne dépend pas de la taille du fichier.
+     * Les régions sont résolues par leur nom (les régions manquantes sont créées une seule fois)
+     * et les bouteilles sont insérées par lots bornés. Un doublon (index unique 'nom') ou une ligne invalide
+     * est compté dans le rapport sans interrompre l'import.
+     * @param flux Le contenu du fichier (UTF-8).
+     * @param format Le format du fichier.
+     * @return Le rapport de l'import.
+     * @throws ParametreInvalideException si l'en-tête CSV est absent ou incomplet.
+     */
+    ImportRapportDTO importerBouteilles(InputStream flux, Format format) throws IOException;
+}
@@ -0,0 +1,227 @@
+package org.example.cavavin.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.Couleur;
+import org.example.cavavin.bo.Region;
+import org.example.cavavin.controller.dto.BouteilleImportDTO;
+import org.example.cavavin.controller.dto.ImportRapportDTO;
+import org.example.cavavin.dal.BouteilleRepository;
+import org.example.cavavin.dal.ErreurEcriture;
+import org.example.cavavin.dal.RegionRepository;
+import org.example.cavavin.service.exception.ParametreInvalideException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+public class ImportServiceImpl implements ImportService {
+
+    private final BouteilleRepository bouteilleRepository;
+    private final RegionRepository regionRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StatistiquesService statistiquesService;
+    private final SuggestionsNoms suggestionsNoms;
+    private final int tailleLot;
+
+    @Autowired
+    public ImportServiceImpl(BouteilleRepository bouteilleRepository, RegionRepository regionRepository,
+                             ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                             StatistiquesService statistiquesService, SuggestionsNoms suggestionsNoms,
+                             @Value("${cavavin.import.taille-lot:1000}") int tailleLot) {
+        this.bouteilleRepository = bouteilleRepository;
+        this.regionRepository = regionRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.statistiquesService = statistiquesService;
+        this.suggestionsNoms = suggestionsNoms;
+        this.tailleLot = tailleLot;
+    }
+
+    @Override
+    public ImportRapportDTO importerBouteilles(InputStream flux, Format format) throws IOException {
+        ImportRapportDTO rapport = new ImportRapportDTO();
+        BufferedReader lecteur = new BufferedReader(new InputStreamReader(flux, StandardCharsets.UTF_8));
+        LecteurLigne lecteurLigne = format == Format.CSV ? new LecteurCsv(lecteur.readLine()) : this::lireNdjson;
+        long numeroLigne = format == Format.CSV ? 1 : 0;
+
+        // 1. Les régions (quelques centaines) sont chargées une fois dans une table locale nom -> Region
+        Map<String, Region> regions = new HashMap<>();
+        regionRepository.findAll().forEach(region -> regions.put(region.getNomRegion(), region));
+
+        // 2. Lecture ligne à ligne. La lecture est suspendue pendant l'écriture d'un lot :
+        // le client est ralenti par le contrôle de flux TCP (backpressure) et la mémoire reste bornée à un lot.
+        List<Bouteille> lot = new ArrayList<>(tailleLot);
+        List<Long> lignesDuLot = new ArrayList<>(tailleLot);
+        String ligne;
+        while ((ligne = lecteur.readLine()) != null) {
+            numeroLigne++;
+            if (ligne.isBlank()) {
+                continue;
+            }
+            rapport.ligneLue();
+            try {
+                lot.add(versBouteille(lecteurLigne.lire(ligne), regions, rapport));
+                lignesDuLot.add(numeroLigne);
+            } catch (IllegalArgumentException | JsonProcessingException e) {
+                rapport.erreur(numeroLigne, e.getMessage());
+                continue;
+            }
+            if (lot.size() == tailleLot) {
+                ecrireLot(lot, lignesDuLot, rapport);
+            }
+        }
+        ecrireLot(lot, lignesDuLot, rapport);
+        return rapport;
+    }
+
+    // 3. Insertion en masse non ordonnée du lot : les doublons sont comptés, le reste du lot est inséré
+    private void ecrireLot(List<Bouteille> lot, List<Long> lignesDuLot, ImportRapportDTO rapport) {
+        Map<Integer, ErreurEcriture> erreurs = bouteilleRepository.insertAllUnordered(lot);
+        rapport.bouteillesInserees(lot.size() - erreurs.size());
+        if (erreurs.size() < lot.size()) {
+            eventPublisher.publishEvent(new BouteillesModifieesEvent(null));
+            // Une seule écriture des statistiques par lot, pour les seules bouteilles insérées
+            VariationsStatistiques variations = new VariationsStatistiques();
+            for (int i = 0; i < lot.size(); i++) {
+                if (!erreurs.containsKey(i)) {
+                    variations.bouteille(lot.get(i), 1, 0);
+                    suggestionsNoms.ajouter(lot.get(i).getNom());
+                }
+            }
+            statistiquesService.enregistrer(variations);
+        }
+        for (ErreurEcriture erreur : erreurs.values()) {
+            if (erreur.isDoublon()) {
+                rapport.doublon();
+            } else {
+                rapport.erreur(lignesDuLot.get(erreur.getIndex()), erreur.getMessage());
+            }
+        }
+        lot.clear();
+        lignesDuLot.clear();
+    }
+
+    private Bouteille versBouteille(BouteilleImportDTO ligne, Map<String, Region> regions, ImportRapportDTO rapport) {
+        if (ligne.getNom() == null || ligne.getNom().isBlank() || ligne.getMillesime() == null) {
+            throw new ParametreInvalideException("Les champs 'nom' et 'millesime' sont obligatoires");
+        }
+        Bouteille bouteille = new Bouteille(ligne.getNom().trim(), ligne.getMillesime());
+        if (ligne.getCouleur() != null && !ligne.getCouleur().isBlank()) {
+            bouteille.setCouleur(new Couleur(ligne.getCouleur().trim()));
+        }
+        if (ligne.getRegion() != null && !ligne.getRegion().isBlank()) {
+            bouteille.setRegion(resoudreRegion(ligne.getRegion().trim(), regions, rapport));
+        }
+        return bouteille;
+    }
+
+    // Une région inconnue est créée une seule fois puis ajoutée à la table locale
+    private Region resoudreRegion(String nomRegion, Map<String, Region> regions, ImportRapportDTO rapport) {
+        Region region = regions.get(nomRegion);
+        if (region == null) {
+            try {
+                region = regionRepository.insert(new Region(nomRegion));
+                rapport.regionCreee();
+            } catch (DuplicateKeyException e) {
+                // Créée entre-temps par un autre import (index unique sur nomRegion)
+                region = regionRepository.findByNomRegion(nomRegion).orElseThrow(() -> e);
+            }
+            regions.put(nomRegion, region);
+        }
+        return region;
+    }
+
+    private BouteilleImportDTO lireNdjson(String ligne) throws JsonProcessingException {
+        return objectMapper.readValue(ligne, BouteilleImportDTO.class);
+    }
+
+    @FunctionalInterface
+    private interface LecteurLigne {
+        BouteilleImportDTO lire(String ligne) throws JsonProcessingException;
+    }
+
+    /**
+     * Lecture d'une ligne CSV selon l'en-tête : les colonnes sont repérées par leur nom,
+     * les champs entre guillemets peuvent contenir le séparateur ("" pour un guillemet).
+     */
+    private static final class LecteurCsv implements LecteurLigne {
+
+        private final char separateur;
+        private final Map<String, Integer> colonnes = new HashMap<>();
+
+        LecteurCsv(String entete) {
+            if (entete == null) {
+                throw new ParametreInvalideException("Fichier CSV vide : l'en-tête est obligatoire");
+            }
+            this.separateur = entete.indexOf(';') >= 0 && entete.indexOf(',') < 0 ? ';' : ',';
+            List<String> noms = decouper(entete, separateur);
+            for (int i = 0; i < noms.size(); i++) {
+                colonnes.put(noms.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!colonnes.containsKey("nom") || !colonnes.containsKey("millesime")) {
+                throw new ParametreInvalideException("L'en-tête CSV doit contenir les colonnes 'nom' et 'millesime' : " + entete);
+            }
+        }
+
+        @Override
+        public BouteilleImportDTO lire(String ligne) {
+            List<String> champs = decouper(ligne, separateur);
+            BouteilleImportDTO bouteille = new BouteilleImportDTO();
+            bouteille.setNom(champ(champs, "nom"));
+            String millesime = champ(champs, "millesime");
+            bouteille.setMillesime(millesime == null || millesime.isBlank() ? null : Integer.valueOf(millesime.trim()));
+            bouteille.setCouleur(champ(champs, "couleur"));
+            bouteille.setRegion(champ(champs, "region"));
+            return bouteille;
+        }
+
+        private String champ(List<String> champs, String colonne) {
+            Integer index = colonnes.get(colonne);
+            return index == null || index >= champs.size() ? null : champs.get(index);
+        }
+
+        private static List<String> decouper(String ligne, char separateur) {
+            List<String> champs = new ArrayList<>();
+            StringBuilder champ = new StringBuilder();
+            boolean entreGuillemets = false;
+            for (int i = 0; i < ligne.length(); i++) {
+                char c = ligne.charAt(i);
+                if (entreGuillemets) {
+                    if (c == '"' && i + 1 < ligne.length() && ligne.charAt(i + 1) == '"') {
+                        champ.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        entreGuillemets = false;
+                    } else {
+                        champ.append(c);
+                    }
+                } else if (c == '"') {
+                    entreGuillemets = true;
+                } else if (c == separateur) {
+                    champs.add(champ.toString());
+                    champ.setLength(0);
+                } else {
+                    champ.append(c);
+                }
+            }
+            champs.add(champ.toString());
+            return champs;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.cavavin.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cavavin.dal.BouteilleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migration des bouteilles écrites avant les champs dénormalisés des avis ('nbAvis', 'derniersAvis'),
+ * voir BouteilleRepositoryCustom.completerChampsAvis(). Idempotente : sans effet une fois les bouteilles migrées.
+ * <p>
+ * Exécutée à l'initialisation du contexte, avant l'ouverture du serveur HTTP : un ajout d'avis sur une bouteille
+ * non migrée créerait 'nbAvis' à 1 ($inc), et la bouteille ne serait plus reprise par la migration.
+ */
+@Slf4j
+@Component
+public class MigrationChampsAvis {
+
+    private final BouteilleRepository bouteilleRepository;
+
+    @Autowired
+    public MigrationChampsAvis(BouteilleRepository bouteilleRepository) {
+        this.bouteilleRepository = bouteilleRepository;
+    }
+
+    @PostConstruct
+    public void migrer() {
+        long debut = System.nanoTime();
+        long completees = bouteilleRepository.completerChampsAvis();
+        if (completees > 0) {
+            log.info("Champs dénormalisés des avis : {} bouteille(s) migrée(s) en {} ms",
+                    completees, (System.nanoTime() - debut) / 1_000_000);
+        }
+    }
+}
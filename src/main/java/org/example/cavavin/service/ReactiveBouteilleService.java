@@ -0,0 +1,46 @@
+package org.example.cavavin.service;
+
+import org.example.cavavin.bo.Avis;
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.example.cavavin.bo.BouteilleResume;
+import org.example.cavavin.controller.dto.PageCurseurDTO;
+import org.example.cavavin.service.exception.ParametreInvalideException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Pendant réactif de BouteilleService (profil "reactive") : aucune opération ne bloque de thread
+ * pendant les allers-retours MongoDB. Les erreurs sont émises dans le flux (Mono.error).
+ */
+public interface ReactiveBouteilleService {
+
+    /**
+     * Ajoute un Avis à une Bouteille existante.
+     * @return Le nouvel objet Avis créé, ou une erreur ResourceNotFoundException si la Bouteille n'existe pas.
+     */
+    Mono<Avis> ajouterAvis(String bouteilleId, String commentaire);
+
+    /**
+     * Supprime une Bouteille et tous les Avis qui lui sont associés (suppression en cascade).
+     * @return Un Mono vide, ou une erreur ResourceNotFoundException si la Bouteille n'existe pas.
+     */
+    Mono<Void> supprimerBouteilleEtAvisAssocies(String bouteilleId);
+
+    /**
+     * Récupère toutes les bouteilles avec les régions chargées par $lookup.
+     */
+    Flux<BouteilleAvecRegion> findAllWithRegionEagerly();
+
+    /**
+     * Récupère une page de bouteilles par pagination par curseur.
+     * @throws ParametreInvalideException (émise dans le Mono) si le curseur ou la limite sont invalides.
+     */
+    Mono<PageCurseurDTO<BouteilleAvecRegion>> findPageWithRegionEagerly(String curseur, int limit);
+
+    /**
+     * @return La bouteille avec sa région, ou une erreur ResourceNotFoundException.
+     */
+    Mono<BouteilleAvecRegion> findById(String id);
+
+    Flux<BouteilleResume> findAllResume();
+}
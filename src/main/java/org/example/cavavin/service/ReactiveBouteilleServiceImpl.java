@@ -0,0 +1,132 @@
+package org.example.cavavin.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.example.cavavin.bo.Avis;
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.example.cavavin.bo.BouteilleResume;
+import org.example.cavavin.controller.dto.PageCurseurDTO;
+import org.example.cavavin.dal.ReactiveAvisRepository;
+import org.example.cavavin.dal.ReactiveBouteilleRepository;
+import org.example.cavavin.service.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.List;
+
+@Service
+@Profile("reactive")
+@Slf4j
+public class ReactiveBouteilleServiceImpl implements ReactiveBouteilleService {
+
+    private final ReactiveBouteilleRepository bouteilleRepository;
+    private final ReactiveAvisRepository avisRepository;
+
+    @Autowired
+    public ReactiveBouteilleServiceImpl(ReactiveBouteilleRepository bouteilleRepository, ReactiveAvisRepository avisRepository) {
+        this.bouteilleRepository = bouteilleRepository;
+        this.avisRepository = avisRepository;
+    }
+
+    // --- Opération 1 : Ajout d'Avis ---
+    @Override
+    public Mono<Avis> ajouterAvis(String bouteilleId, String commentaire) {
+        // 1. L'ID de l'avis est généré côté client pour pouvoir le référencer avant son insertion
+        Avis nouvelAvis = new Avis(commentaire, referenceVers(bouteilleId));
+        nouvelAvis.setId(new ObjectId().toHexString());
+
+        // 2. $push ciblé sur la bouteille : sert aussi de contrôle d'existence (aucune lecture préalable)
+        // 3. Insertion de l'Avis seulement si la bouteille existe : pas d'avis orphelin.
+        // Si elle échoue, l'ajout est retiré de la bouteille (ID, compteur, derniers avis) avant de propager l'erreur.
+        // 4. Nouvelle version (ETag) une fois l'avis lisible : celle du $push a pu être lue sans l'avis.
+        // L'avis est écrit : un échec de cet incrément n'est pas propagé (l'appelant réessaierait, en dupliquant l'avis).
+        return bouteilleRepository.pushAvis(bouteilleId, nouvelAvis)
+                .filter(trouvee -> trouvee)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Bouteille", bouteilleId)))
+                .then(avisRepository.insert(nouvelAvis)
+                        .onErrorResume(e -> bouteilleRepository.retirerAvis(bouteilleId, nouvelAvis)
+                                .onErrorResume(compensation -> {
+                                    e.addSuppressed(compensation);
+                                    return Mono.empty();
+                                })
+                                .then(Mono.error(e))))
+                .flatMap(insere -> bouteilleRepository.incrementerVersion(bouteilleId)
+                        .onErrorResume(e -> {
+                            log.warn("Version non incrémentée après l'ajout de l'avis {}", insere.getId(), e);
+                            return Mono.empty();
+                        })
+                        .thenReturn(insere));
+    }
+
+    // --- Opération 2 : Suppression en Cascade ---
+    @Override
+    public Mono<Void> supprimerBouteilleEtAvisAssocies(String bouteilleId) {
+        // Même ordre que la pile servlet (BouteilleServiceImpl) : la bouteille d'abord, si sa version n'a pas changé
+        // depuis la lecture, puis ses avis. Un ajout d'avis intercalé fait reprendre l'opération (relecture comprise) :
+        // aucun avis n'est supprimé d'une bouteille qui reste en place.
+        return bouteilleRepository.findById(bouteilleId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Bouteille", bouteilleId)))
+                .flatMap(bouteille -> bouteilleRepository.supprimerSiVersion(bouteille.getId(), bouteille.getVersion())
+                        .flatMap(supprimee -> supprimee
+                                ? avisRepository.deleteByBouteille(bouteille)
+                                : Mono.error(new OptimisticLockingFailureException(
+                                        "Bouteille modifiée pendant sa suppression (ID : " + bouteilleId + ")"))))
+                .retryWhen(Retry.max(BouteilleServiceImpl.TENTATIVES_SUPPRESSION - 1)
+                        .filter(OptimisticLockingFailureException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    // --- Opération 3 : Lecture avec $lookup ---
+    @Override
+    public Flux<BouteilleAvecRegion> findAllWithRegionEagerly() {
+        return bouteilleRepository.findAllWithRegionEagerly();
+    }
+
+    // --- Opération 3 bis : Lecture paginée par curseur (keyset) ---
+    @Override
+    public Mono<PageCurseurDTO<BouteilleAvecRegion>> findPageWithRegionEagerly(String curseur, int limit) {
+        // Mono.defer : une limite ou un curseur invalide est émis comme erreur du Mono
+        return Mono.defer(() -> {
+                    CurseurPagination.verifierLimite(limit);
+                    String apresId = CurseurPagination.decoder(curseur);
+                    return bouteilleRepository.findPageWithRegionEagerly(apresId, limit + 1).collectList();
+                })
+                .map(bouteilles -> {
+                    // Un élément de plus que la limite a été demandé pour savoir s'il existe une page suivante
+                    if (bouteilles.size() <= limit) {
+                        return new PageCurseurDTO<>(bouteilles, null);
+                    }
+                    List<BouteilleAvecRegion> page = bouteilles.subList(0, limit);
+                    return new PageCurseurDTO<>(page, CurseurPagination.encoder(page.get(limit - 1).getId()));
+                });
+    }
+
+    // --- Opération 4 : Consultation détaillée ---
+    @Override
+    public Mono<BouteilleAvecRegion> findById(String id) {
+        if (!ObjectId.isValid(id)) {
+            return Mono.error(new ResourceNotFoundException("Bouteille", id));
+        }
+        return bouteilleRepository.findWithRegionById(new ObjectId(id))
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Bouteille", id)));
+    }
+
+    // --- Opération 5 : Projection de Performance (projection de classe) ---
+    @Override
+    public Flux<BouteilleResume> findAllResume() {
+        return bouteilleRepository.findAllBy();
+    }
+
+    // Référence vers une bouteille par son seul ID : suffit pour écrire le @DocumentReference de l'Avis
+    private static Bouteille referenceVers(String bouteilleId) {
+        Bouteille reference = new Bouteille();
+        reference.setId(bouteilleId);
+        return reference;
+    }
+}
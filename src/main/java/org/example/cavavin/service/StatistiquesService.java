@@ -0,0 +1,41 @@
+package org.example.cavavin.service;
+
+import org.example.cavavin.controller.dto.StatistiquesDTO;
+
+import java.util.Collection;
+
+/**
+ * Statistiques du catalogue (bouteilles et avis par région, couleur et millésime), lues depuis la collection
+ * matérialisée 'statistiques' : le coût d'une lecture dépend du nombre de groupes, pas du nombre de bouteilles.
+ * La collection est tenue à jour par incréments depuis les écritures de BouteilleServiceImpl et d'ImportServiceImpl,
+ * et recalculée par une reconstruction complète : au démarrage si elle est vide, puis selon
+ * cavavin.stats.reconstruction.cron (désactivée par défaut). Les écritures de la pile réactive
+ * ne sont pas répercutées : seule la reconstruction les prend en compte.
+ */
+public interface StatistiquesService {
+
+    StatistiquesDTO lire();
+
+    /**
+     * Reconstruction complète depuis 'bouteilles' ($merge). Les incréments appliqués pendant la reconstruction
+     * peuvent être écrasés par la ligne recalculée : l'écart éventuel est corrigé à la reconstruction suivante.
+     * @return le nombre de groupes obsolètes supprimés.
+     */
+    long reconstruire();
+
+    /**
+     * Applique les variations d'une écriture. Un échec est journalisé sans être propagé : l'écriture métier a déjà eu lieu,
+     * l'écart sera corrigé par la reconstruction suivante.
+     */
+    void enregistrer(VariationsStatistiques variations);
+
+    /**
+     * Contribution actuelle des bouteilles données, en variations négatives : à calculer AVANT leur suppression en masse.
+     */
+    VariationsStatistiques retraitParIds(Collection<String> bouteilleIds);
+
+    /**
+     * Même chose pour les bouteilles qui correspondent au filtre du catalogue.
+     */
+    VariationsStatistiques retraitParFiltre(String couleur, Integer millesimeMin, Integer millesimeMax, String regionId);
+}
@@ -0,0 +1,127 @@
+package org.example.cavavin.service;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cavavin.bo.Region;
+import org.example.cavavin.bo.Statistique;
+import org.example.cavavin.controller.dto.GroupeStatistiqueDTO;
+import org.example.cavavin.controller.dto.StatistiquesDTO;
+import org.example.cavavin.dal.StatistiqueRepository;
+import org.example.cavavin.dal.cache.RegionCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+@Slf4j
+@Service
+@Timed(value = "cavavin.service.statistiques", histogram = true)
+public class StatistiquesServiceImpl implements StatistiquesService {
+
+    private final StatistiqueRepository statistiqueRepository;
+    private final RegionCache regionCache;
+    // Variations non appliquées (écart corrigé par la reconstruction suivante)
+    private final Counter echecs;
+
+    @Autowired
+    public StatistiquesServiceImpl(StatistiqueRepository statistiqueRepository, RegionCache regionCache,
+                                   MeterRegistry meterRegistry) {
+        this.statistiqueRepository = statistiqueRepository;
+        this.regionCache = regionCache;
+        this.echecs = meterRegistry.counter("cavavin.stats.echecs");
+    }
+
+    @Override
+    public StatistiquesDTO lire() {
+        List<GroupeStatistiqueDTO> regions = new ArrayList<>();
+        List<GroupeStatistiqueDTO> couleurs = new ArrayList<>();
+        List<GroupeStatistiqueDTO> millesimes = new ArrayList<>();
+        for (Statistique statistique : statistiqueRepository.findAll()) {
+            // Groupe vidé par des suppressions : conservé jusqu'à la prochaine reconstruction, mais pas affiché
+            if (statistique.getBouteilles() <= 0) {
+                continue;
+            }
+            String valeur = statistique.getId().getValeur();
+            switch (statistique.getId().getDimension()) {
+                case Statistique.REGION -> {
+                    // Nom lu depuis le RegionCache : une région renommée est affichée sous son nouveau nom
+                    Region region = regionCache.trouverOuCharger(valeur);
+                    regions.add(groupe(statistique, region != null ? region.getNomRegion() : valeur));
+                }
+                case Statistique.COULEUR -> couleurs.add(groupe(statistique, valeur));
+                case Statistique.MILLESIME -> millesimes.add(groupe(statistique, valeur));
+                default -> log.warn("Dimension de statistique inconnue : {}", statistique.getId().getDimension());
+            }
+        }
+        regions.sort(Comparator.comparing(GroupeStatistiqueDTO::getLibelle));
+        couleurs.sort(Comparator.comparing(GroupeStatistiqueDTO::getLibelle));
+        millesimes.sort(Comparator.comparing(groupe -> Integer.valueOf(groupe.getValeur())));
+        return new StatistiquesDTO(regions, couleurs, millesimes);
+    }
+
+    @Override
+    public long reconstruire() {
+        long debut = System.nanoTime();
+        long obsoletes = statistiqueRepository.reconstruire();
+        log.info("Statistiques reconstruites en {} ms ({} groupe(s) obsolète(s) supprimé(s))",
+                (System.nanoTime() - debut) / 1_000_000, obsoletes);
+        return obsoletes;
+    }
+
+    /**
+     * Première reconstruction, si la collection n'a jamais été calculée.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiser() {
+        if (statistiqueRepository.count() == 0) {
+            reconstruire();
+        }
+    }
+
+    @Scheduled(cron = "${cavavin.stats.reconstruction.cron:-}")
+    public void reconstruirePeriodiquement() {
+        try {
+            reconstruire();
+        } catch (DataAccessException e) {
+            log.error("Reconstruction des statistiques en échec", e);
+        }
+    }
+
+    @Override
+    public void enregistrer(VariationsStatistiques variations) {
+        if (variations.estVide()) {
+            return;
+        }
+        try {
+            statistiqueRepository.incrementer(variations.valeurs());
+        } catch (DataAccessException e) {
+            echecs.increment();
+            log.warn("Statistiques non mises à jour (corrigées à la prochaine reconstruction)", e);
+        }
+    }
+
+    @Override
+    public VariationsStatistiques retraitParIds(Collection<String> bouteilleIds) {
+        return new VariationsStatistiques().retirer(statistiqueRepository.calculerParIds(bouteilleIds));
+    }
+
+    @Override
+    public VariationsStatistiques retraitParFiltre(String couleur, Integer millesimeMin, Integer millesimeMax, String regionId) {
+        return new VariationsStatistiques().retirer(
+                statistiqueRepository.calculerParFiltre(couleur, millesimeMin, millesimeMax, regionId));
+    }
+
+    private static GroupeStatistiqueDTO groupe(Statistique statistique, String libelle) {
+        return new GroupeStatistiqueDTO(statistique.getId().getValeur(), libelle, statistique.getBouteilles(),
+                statistique.getAvis());
+    }
+}
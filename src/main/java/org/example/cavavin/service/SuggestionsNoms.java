@@ -0,0 +1,175 @@
+package org.example.cavavin.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cavavin.dal.BouteilleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Suggestions de noms de bouteilles par préfixe (GET /api/bouteilles/suggest), servies depuis une table triée en mémoire :
+ * clé normalisée (minuscules, sans accents) puis nom, dans une ConcurrentSkipListMap. Une suggestion est un parcours
+ * de sous-table borné à la limite : quelques microsecondes, sans requête MongoDB.
+ * <p>
+ * La table est chargée au démarrage (en tâche de fond), puis tenue à jour par les écritures des services
+ * (import, modification du nom, suppression) ; une suppression en masse, dont les noms ne sont pas connus, déclenche
+ * un rechargement complet. Les écritures des autres instances et de la pile réactive ne sont vues qu'au rechargement
+ * suivant (cavavin.suggestions.rechargement.cron, désactivé par défaut).
+ * Tant que la table n'est pas chargée, ou si cavavin.suggestions.actif=false, les suggestions sont lues depuis MongoDB
+ * (BouteilleRepository.suggererNoms : index 'nom_fr_primaire', sans casse ni accents, comme la table).
+ * Métrique : cavavin.suggestions.replis (suggestions lues depuis MongoDB).
+ */
+@Slf4j
+@Component
+public class SuggestionsNoms {
+
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+    // Sépare la clé normalisée du nom : deux noms de même forme normalisée ("Chablis", "CHABLIS") restent distincts
+    private static final char SEPARATEUR = '\u0000';
+
+    private final BouteilleRepository bouteilleRepository;
+    private final boolean actif;
+    private final Counter replis;
+
+    // null tant que le premier chargement n'est pas terminé
+    private volatile ConcurrentSkipListMap<String, String> noms;
+    // Table en cours de rechargement : les écritures y sont aussi appliquées, pour ne pas être perdues à la bascule
+    private volatile ConcurrentSkipListMap<String, String> enChargement;
+
+    // Un seul rechargement à la fois, sur un thread dédié ; les demandes reçues pendant un rechargement sont regroupées
+    private final ExecutorService executeur = Executors.newSingleThreadExecutor(tache -> {
+        Thread thread = new Thread(tache, "suggestions-noms");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean demande = new AtomicBoolean();
+
+    @Autowired
+    public SuggestionsNoms(BouteilleRepository bouteilleRepository, MeterRegistry meterRegistry,
+                           @Value("${cavavin.suggestions.actif:true}") boolean actif) {
+        this.bouteilleRepository = bouteilleRepository;
+        this.actif = actif;
+        this.replis = meterRegistry.counter("cavavin.suggestions.replis");
+        meterRegistry.gauge("cavavin.suggestions.noms", this, suggestions -> {
+            ConcurrentSkipListMap<String, String> courants = suggestions.noms;
+            return courants == null ? 0 : courants.size();
+        });
+    }
+
+    /**
+     * Au plus {@code limite} noms qui commencent par {@code prefixe} (casse et accents ignorés), par ordre alphabétique.
+     */
+    public List<String> suggerer(String prefixe, int limite) {
+        ConcurrentSkipListMap<String, String> courants = noms;
+        if (courants == null) {
+            replis.increment();
+            return bouteilleRepository.suggererNoms(prefixe, limite);
+        }
+        String debut = normaliser(prefixe);
+        List<String> suggestions = new ArrayList<>(limite);
+        for (String nom : courants.subMap(debut, true, debut + '\uffff', false).values()) {
+            if (suggestions.size() == limite) {
+                break;
+            }
+            suggestions.add(nom);
+        }
+        return suggestions;
+    }
+
+    public void ajouter(String nom) {
+        if (nom != null) {
+            appliquer(table -> table.put(cle(nom), nom));
+        }
+    }
+
+    public void retirer(String nom) {
+        if (nom != null) {
+            appliquer(table -> table.remove(cle(nom)));
+        }
+    }
+
+    private void appliquer(Consumer<ConcurrentSkipListMap<String, String>> ecriture) {
+        ConcurrentSkipListMap<String, String> courants = noms;
+        ConcurrentSkipListMap<String, String> suivants = enChargement;
+        if (courants != null) {
+            ecriture.accept(courants);
+        }
+        if (suivants != null) {
+            ecriture.accept(suivants);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiser() {
+        demanderRechargement();
+    }
+
+    /**
+     * Programme un rechargement complet (sans effet si un rechargement est déjà en attente).
+     */
+    public void demanderRechargement() {
+        if (actif && demande.compareAndSet(false, true)) {
+            executeur.execute(this::recharger);
+        }
+    }
+
+    @Scheduled(cron = "${cavavin.suggestions.rechargement.cron:-}")
+    public void rechargerPeriodiquement() {
+        demanderRechargement();
+    }
+
+    /**
+     * Rechargement synchrone : la nouvelle table est construite à part, puis remplace l'ancienne en une écriture.
+     * Un nom supprimé pendant la lecture peut y rester jusqu'au rechargement suivant.
+     */
+    public void recharger() {
+        // Une demande reçue pendant le chargement en programme un nouveau
+        demande.set(false);
+        long debut = System.nanoTime();
+        ConcurrentSkipListMap<String, String> table = new ConcurrentSkipListMap<>();
+        enChargement = table;
+        try (Stream<String> lus = bouteilleRepository.streamNoms()) {
+            lus.filter(Objects::nonNull).forEach(nom -> table.put(cle(nom), nom));
+            noms = table;
+            log.info("Suggestions : {} nom(s) chargé(s) en {} ms", table.size(), (System.nanoTime() - debut) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Chargement des suggestions en échec", e);
+        } finally {
+            enChargement = null;
+        }
+    }
+
+    // Clé de tri : forme normalisée, puis le nom lui-même
+    private static String cle(String nom) {
+        return normaliser(nom) + SEPARATEUR + nom;
+    }
+
+    // Minuscules sans accents : "Château" et "chateau" ont la même forme
+    static String normaliser(String texte) {
+        return DIACRITIQUES.matcher(Normalizer.normalize(texte, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executeur.shutdownNow();
+    }
+}
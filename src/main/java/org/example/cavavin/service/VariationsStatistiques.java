@@ -0,0 +1,64 @@
+package org.example.cavavin.service;
+
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.Statistique;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Variations des statistiques produites par une écriture, cumulées par groupe avant d'être appliquées
+ * en une seule écriture en masse (voir StatistiquesService.enregistrer). Des variations opposées sur un même groupe
+ * (modification qui ne change pas la région, par exemple) s'annulent et ne sont pas écrites.
+ */
+public final class VariationsStatistiques {
+
+    private final Map<Statistique.Cle, Statistique> parGroupe = new LinkedHashMap<>();
+
+    /**
+     * Ajoute les variations d'une bouteille à chacun de ses groupes (région, couleur, millésime ; une valeur absente est ignorée).
+     * @param bouteilles bouteilles ajoutées (1), retirées (-1) ou 0.
+     * @param avis avis ajoutés, ou retirés s'il est négatif.
+     */
+    public VariationsStatistiques bouteille(Bouteille bouteille, long bouteilles, long avis) {
+        if (bouteille.getRegion() != null) {
+            ajouter(Statistique.REGION, bouteille.getRegion().getId(), bouteilles, avis);
+        }
+        if (bouteille.getCouleur() != null) {
+            ajouter(Statistique.COULEUR, bouteille.getCouleur().getLibelle(), bouteilles, avis);
+        }
+        if (bouteille.getMillesime() != null) {
+            ajouter(Statistique.MILLESIME, bouteille.getMillesime().toString(), bouteilles, avis);
+        }
+        return this;
+    }
+
+    /**
+     * Retire des groupes entiers (contribution de bouteilles supprimées en masse, calculée par agrégation).
+     */
+    public VariationsStatistiques retirer(Collection<Statistique> groupes) {
+        for (Statistique groupe : groupes) {
+            ajouter(groupe.getId().getDimension(), groupe.getId().getValeur(), -groupe.getBouteilles(), -groupe.getAvis());
+        }
+        return this;
+    }
+
+    public boolean estVide() {
+        return parGroupe.isEmpty();
+    }
+
+    Collection<Statistique> valeurs() {
+        return parGroupe.values();
+    }
+
+    private void ajouter(String dimension, String valeur, long bouteilles, long avis) {
+        if (valeur == null) {
+            return;
+        }
+        Statistique variation = parGroupe.computeIfAbsent(new Statistique.Cle(dimension, valeur),
+                cle -> new Statistique(cle, 0, 0));
+        variation.setBouteilles(variation.getBouteilles() + bouteilles);
+        variation.setAvis(variation.getAvis() + avis);
+    }
+}
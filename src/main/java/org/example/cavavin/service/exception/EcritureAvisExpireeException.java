@@ -0,0 +1,17 @@
+package org.example.cavavin.service.exception;
+
+import java.time.Duration;
+
+// Levée quand l'écriture différée d'un avis n'est pas confirmée à temps (acquittement ECRITURE)
+public class EcritureAvisExpireeException extends RuntimeException {
+    // L'avis a été retiré de la file : il ne sera pas écrit, la requête peut être réessayée
+    public EcritureAvisExpireeException(Duration delai) {
+        super(String.format("Avis non écrit après %d ms : réessayer plus tard", delai.toMillis()));
+    }
+
+    // L'avis était déjà en cours d'écriture : il peut encore être écrit, son ID permet de le vérifier avant de réessayer
+    public EcritureAvisExpireeException(Duration delai, String avisId) {
+        super(String.format("Écriture de l'avis %s non confirmée après %d ms : vérifier sa présence avant de réessayer",
+                avisId, delai.toMillis()));
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.cavavin.service.exception;
+
+// Levée quand la file d'écriture différée des avis est pleine (ou arrêtée) : le client doit réessayer plus tard
+public class FileAvisPleineException extends RuntimeException {
+    public FileAvisPleineException(int capacite) {
+        super(String.format("File d'écriture des avis pleine (%d avis en attente) : réessayer plus tard", capacite));
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.cavavin.service.exception;
+
+// Levée par les contrôles de paramètres des services (limite, curseur, préfixe, filtre...) : seule exception mappée à 400.
+// Hérite d'IllegalArgumentException, mais une IllegalArgumentException levée ailleurs (Spring, driver) reste une erreur serveur
+public class ParametreInvalideException extends IllegalArgumentException {
+    public ParametreInvalideException(String message) {
+        super(message);
+    }
+
+    public ParametreInvalideException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
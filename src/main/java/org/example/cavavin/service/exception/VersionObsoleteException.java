@@ -0,0 +1,13 @@
+package org.example.cavavin.service.exception;
+
+// Levée quand la version fournie par le client (If-Match) ne correspond plus à celle de la ressource
+public class VersionObsoleteException extends RuntimeException {
+    public VersionObsoleteException(String resourceName, String id, long versionAttendue) {
+        super(String.format("%s modifiée depuis sa lecture (ID : %s, version attendue : %d)", resourceName, id, versionAttendue));
+    }
+
+    // If-Match avec un ETag faible (W/"…") : la comparaison forte exigée par If-Match ne peut pas réussir (RFC 9110)
+    public VersionObsoleteException(String resourceName, String id, String ifMatch) {
+        super(String.format("%s : un ETag faible ne satisfait pas If-Match (ID : %s, If-Match : %s)", resourceName, id, ifMatch));
+    }
+}
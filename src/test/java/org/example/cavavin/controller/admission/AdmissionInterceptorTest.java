@@ -0,0 +1,53 @@
+package org.example.cavavin.controller.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionInterceptorTest {
+
+    // Endpoints factices : une réponse classique et une réponse en flux, dans la même cloison
+    static class Endpoints {
+        @Cloison(Cloison.Type.LOURDE)
+        public void lire() {
+        }
+
+        @Cloison(value = Cloison.Type.LOURDE, flux = true)
+        public void exporter() {
+        }
+    }
+
+    @Test
+    @DisplayName("A. Flux : une réponse longue rend sa place sans faire chuter la limite, contrairement à une requête lente")
+    void testFluxSansAjustement() throws Exception {
+        LimiteAdaptative limite = new LimiteAdaptative("test", 8, 1, 10, Duration.ofMillis(10), 0.5, new SimpleMeterRegistry());
+        AdmissionInterceptor interceptor = new AdmissionInterceptor(Map.of(Cloison.Type.LOURDE, limite));
+
+        // Export tenu bien au-delà de la latence cible (téléchargement lent du client)
+        traiter(interceptor, "exporter", Duration.ofMillis(50));
+        assertEquals(8, limite.getLimite(), "La durée d'un flux ne doit pas réduire la limite.");
+        assertEquals(0, limite.getEnCours(), "La place du flux doit être rendue.");
+
+        // Même durée pour une réponse classique : la limite est réduite
+        traiter(interceptor, "lire", Duration.ofMillis(50));
+        assertEquals(4, limite.getLimite());
+        assertEquals(0, limite.getEnCours());
+    }
+
+    private static void traiter(AdmissionInterceptor interceptor, String methode, Duration duree) throws Exception {
+        HandlerMethod handler = new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(methode));
+        MockHttpServletRequest requete = new MockHttpServletRequest();
+        MockHttpServletResponse reponse = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(requete, reponse, handler));
+        Thread.sleep(duree.toMillis());
+        interceptor.afterCompletion(requete, reponse, handler, null);
+    }
+}
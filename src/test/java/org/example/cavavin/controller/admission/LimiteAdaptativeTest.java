@@ -0,0 +1,56 @@
+package org.example.cavavin.controller.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimiteAdaptativeTest {
+
+    @Test
+    @DisplayName("A. Admission : refus au-delà de la limite, place rendue à la sortie")
+    void testRefusAuDelaDeLaLimite() {
+        SimpleMeterRegistry registre = new SimpleMeterRegistry();
+        LimiteAdaptative limite = new LimiteAdaptative("test", 2, 1, 10, Duration.ofSeconds(10), 0.5, registre);
+
+        long premiere = limite.entrer();
+        assertTrue(limite.entrer() >= 0);
+        assertEquals(-1, limite.entrer(), "La troisième requête doit être refusée.");
+        assertEquals(1, registre.counter("cavavin.admission.rejets", "cloison", "test").count());
+
+        limite.sortir(premiere);
+        assertTrue(limite.entrer() >= 0, "La place rendue doit être réutilisable.");
+        assertEquals(2, limite.getEnCours());
+    }
+
+    @Test
+    @DisplayName("B. AIMD : une fenêtre lente réduit la limite une seule fois, les requêtes rapides la font croître")
+    void testAjustementAimd() {
+        LimiteAdaptative limite = new LimiteAdaptative("test", 8, 1, 10, Duration.ofMillis(50), 0.5, new SimpleMeterRegistry());
+
+        // Quatre requêtes admises ensemble, toutes hors cible : une seule réduction (8 -> 4)
+        long lointaine = System.nanoTime() - Duration.ofSeconds(1).toNanos();
+        for (int i = 0; i < 4; i++) {
+            limite.entrer();
+        }
+        for (int i = 0; i < 4; i++) {
+            limite.sortir(lointaine);
+        }
+        assertEquals(4, limite.getLimite());
+
+        // Requêtes rapides avec la limite utilisée au moins à moitié : +1 par fenêtre, jusqu'au maximum
+        for (int i = 0; i < 100; i++) {
+            long[] admissions = new long[limite.getLimite()];
+            for (int j = 0; j < admissions.length; j++) {
+                admissions[j] = limite.entrer();
+            }
+            for (long admission : admissions) {
+                limite.sortir(admission);
+            }
+        }
+        assertEquals(10, limite.getLimite());
+    }
+}
@@ -1,6 +1,13 @@
 package org.example.cavavin.dal;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.example.cavavin.bo.*;
+import org.example.cavavin.dal.cache.RegionCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +18,7 @@ import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,6 +33,15 @@ public class BouteilleRepositoryTest {
     @Autowired
     private AvisRepository avisRepository; // NOTE : Doit contenir findByBouteille()
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RegionCache regionCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // --- I. Tests d'Intégrité et de Création ---
 
     @Test
@@ -112,6 +129,63 @@ public class BouteilleRepositoryTest {
         assertEquals("Alsace", foundAlsace.getRegion().getNomRegion());
     }
 
+    @Test
+    @DisplayName("II.C. Cache de Régions : la région est résolue depuis le cache, sans proxy paresseux, et chargée en cas de miss")
+    void testRegionResolueDepuisLeCache() {
+        // Arrange
+        regionRepository.deleteAll();
+        bouteilleRepository.deleteAll();
+        Region loire = regionRepository.save(new Region("Loire")); // L'écriture alimente le RegionCache
+        Bouteille bouteille = new Bouteille("Saumur", 2020);
+        bouteille.setRegion(loire);
+        bouteille = bouteilleRepository.save(bouteille);
+
+        // Act
+        Bouteille reloadedBouteille = bouteilleRepository.findById(bouteille.getId()).orElseThrow();
+
+        // Assert : une instance Region ordinaire (et non un proxy @DocumentReference) signifie qu'aucune requête n'est nécessaire
+        assertEquals(Region.class, reloadedBouteille.getRegion().getClass(), "La région doit venir du cache.");
+        assertEquals("Loire", reloadedBouteille.getRegion().getNomRegion());
+
+        // Région absente du cache (pile servlet) : chargée pendant la conversion, puis remise en cache
+        regionCache.retirer(loire.getId());
+        Bouteille rechargee = bouteilleRepository.findById(bouteille.getId()).orElseThrow();
+        assertEquals("Loire", rechargee.getRegion().getNomRegion(), "Un miss ne doit pas priver la bouteille du nom de sa région.");
+        assertTrue(regionCache.trouver(loire.getId()).isPresent());
+    }
+
+    @Test
+    @DisplayName("II.C bis. Cache de Régions plein : la région la moins récemment lue est évincée au profit de la nouvelle")
+    void testRegionCacheEvictionMoinsRecente() {
+        // Arrange : un cache de 2 régions pour 3 régions en base
+        regionRepository.deleteAll();
+        Region alsace = regionRepository.save(new Region("Alsace"));
+        Region jura = regionRepository.save(new Region("Jura"));
+        Region savoie = regionRepository.save(new Region("Savoie"));
+        RegionCache cache = new RegionCache(regionRepository, new SimpleMeterRegistry(), 2, true);
+        try {
+            assertEquals("Alsace", cache.trouverOuCharger(alsace.getId()).getNomRegion());
+            assertEquals("Jura", cache.trouverOuCharger(jura.getId()).getNomRegion());
+            cache.trouver(alsace.getId()); // Alsace devient la plus récemment lue
+
+            // Act : une troisième région, au-delà de la taille maximale
+            assertEquals("Savoie", cache.trouverOuCharger(savoie.getId()).getNomRegion());
+
+            // Assert : la nouvelle région est en cache, Jura (la moins récemment lue) a été évincée
+            assertTrue(cache.trouver(savoie.getId()).isPresent(), "Une nouvelle région doit entrer dans un cache plein.");
+            assertTrue(cache.trouver(alsace.getId()).isPresent());
+            assertTrue(cache.trouver(jura.getId()).isEmpty());
+
+            // Le rechargement complet respecte la taille maximale et garde les régions en cache
+            cache.recharger();
+            assertTrue(cache.trouver(savoie.getId()).isPresent());
+            assertTrue(cache.trouver(alsace.getId()).isPresent());
+            assertTrue(cache.trouver(jura.getId()).isEmpty());
+        } finally {
+            cache.arreter();
+        }
+    }
+
     @Test
     @DisplayName("II.B. Chargement Lazy Avis : Validation du comportement paresseux")
     void testLazyLoadingAvis() {
@@ -142,6 +216,42 @@ public class BouteilleRepositoryTest {
         assertEquals("Excellent vin!", reloadedBouteille.getAvis().get(0).getCommentaire());
     }
 
+    @Test
+    @DisplayName("II.D. Consultation détaillée : région et page d'avis jointes en une seule agrégation")
+    void testFindDetailById() throws Exception {
+        // Arrange : une bouteille avec région et trois avis
+        bouteilleRepository.deleteAll();
+        avisRepository.deleteAll();
+        regionRepository.deleteAll();
+        Region region = regionRepository.save(new Region("Jura"));
+        Bouteille bouteille = new Bouteille("Vin Jaune", 2015);
+        bouteille.setRegion(region);
+        bouteille = bouteilleRepository.save(bouteille);
+        for (int i = 0; i < 3; i++) {
+            avisRepository.save(new Avis("Avis " + i, bouteille));
+        }
+
+        // Act : page de deux avis
+        BouteilleDetail detail = bouteilleRepository.findDetailById(bouteille.getId(), 2).orElseThrow();
+
+        // Assert : objets ordinaires (aucun proxy), avis les plus récents d'abord
+        assertEquals("Vin Jaune", detail.getNom());
+        assertEquals(Region.class, detail.getRegion().getClass());
+        assertEquals("Jura", detail.getRegion().getNomRegion());
+        assertEquals(2, detail.getAvis().size());
+        assertEquals("Avis 2", detail.getAvis().get(0).getCommentaire());
+        assertNotNull(detail.getAvis().get(0).getId());
+        assertTrue(bouteilleRepository.findDetailById("ID_INEXISTANT", 2).isEmpty());
+
+        // JSON : la page d'avis sans le résumé 'derniersAvis' ; sur une liste, une bouteille n'expose pas ses avis
+        JsonNode detailJson = objectMapper.valueToTree(detail);
+        assertEquals(2, detailJson.get("avis").size());
+        assertFalse(detailJson.has("derniersAvis"));
+        JsonNode bouteilleJson = objectMapper.valueToTree(bouteilleRepository.findAll().get(0));
+        assertFalse(bouteilleJson.has("avis"), "La liste ne doit pas charger les avis de chaque bouteille.");
+        assertTrue(bouteilleJson.has("nbAvis"));
+    }
+
     // --- V. Tests de Requêtes Spécifiques ---
 
     @Test
@@ -165,6 +275,39 @@ public class BouteilleRepositoryTest {
         assertEquals("Bordeaux", result.get(0).getNom());
     }
 
+    @Test
+    @DisplayName("V.C. Filtre à facettes : page, total et décomptes en une seule agrégation $facet")
+    void testFiltrerAvecFacettes() {
+        // Arrange : 3 rouges (2 en Bourgogne), 1 blanc
+        bouteilleRepository.deleteAll();
+        regionRepository.deleteAll();
+        Region bourgogne = regionRepository.save(new Region("Bourgogne"));
+        Region loire = regionRepository.save(new Region("Loire"));
+        Object[][] donnees = {{"Volnay", 1999, "Rouge", bourgogne}, {"Pommard", 2005, "Rouge", bourgogne},
+                {"Chinon", 2008, "Rouge", loire}, {"Sancerre", 2008, "Blanc", loire}};
+        for (Object[] ligne : donnees) {
+            Bouteille bouteille = new Bouteille((String) ligne[0], (Integer) ligne[1]);
+            bouteille.setCouleur(new Couleur((String) ligne[2]));
+            bouteille.setRegion((Region) ligne[3]);
+            bouteilleRepository.save(bouteille);
+        }
+
+        // Act : rouges, page de 2
+        BouteillesFiltrees rouges = bouteilleRepository.filtrer("Rouge", null, null, null, 0, 2);
+        // Act : rouges de Bourgogne depuis 2000
+        BouteillesFiltrees recents = bouteilleRepository.filtrer("Rouge", 2000, null, bourgogne.getId(), 0, 10);
+
+        // Assert
+        assertEquals(3, rouges.getTotal());
+        assertEquals(2, rouges.getContenu().size(), "La page est bornée, pas les décomptes.");
+        assertNotNull(rouges.getContenu().get(0).getRegion(), "La région de la page est jointe.");
+        assertEquals(List.of(new Facette("Rouge", "Rouge", 3)), rouges.getCouleurs());
+        assertEquals(new Facette(bourgogne.getId(), "Bourgogne", 2), rouges.getRegions().get(0));
+        assertEquals(List.of(new FacetteMillesime(1990, 1), new FacetteMillesime(2000, 2)), rouges.getMillesimes());
+        assertEquals(1, recents.getTotal());
+        assertEquals("Pommard", recents.getContenu().get(0).getNom());
+    }
+
     @Test
     @DisplayName("V.D. Pagination et Tri : Valider l'ordonnancement par millésime")
     void testPaginationAndSorting() {
@@ -296,21 +439,54 @@ public class BouteilleRepositoryTest {
         assertEquals("Vin de Test", resume.getNom());
         assertNotNull(resume.getCouleur(), "Le sous-document Couleur doit être chargé.");
 
-        // 2. Vérification que les champs exclus/lourds ne sont PAS chargés
-        // Le résultat de la projection est un proxy Spring Data. Les champs non inclus
-        // dans la projection doivent être null ou non initialisés.
-        // Puisque Region et Avis ne sont pas dans BouteilleResume :
+        assertEquals(2023, resume.getMillesime());
+        assertEquals("Blanc", resume.getCouleur().getLibelle());
 
-        // Pour les collections référencées, l'absence de getter dans la projection garantit
-        // que l'information n'est pas hydratée, même si elle existe dans le document BSON.
-        // Pour ce test, nous nous assurons surtout que l'opération est rapide et ne lève pas d'exception.
+        // 2. Projection de classe (BouteilleResume) : Region et Avis n'en font pas partie,
+        // ils ne sont ni transférés ni hydratés.
+    }
 
-        // Si BouteilleResume était un DTO, nous testerions l'absence de Avis et Region.
-        // Avec une interface de projection Spring, nous nous limitons à valider les champs présents.
+    @Test
+    @DisplayName("VIII.B. Projection en flux : streamAllBy() lit la même projection depuis un curseur")
+    void testStreamAllByProjection() {
+        // Arrange
+        bouteilleRepository.deleteAll();
+        bouteilleRepository.save(new Bouteille("Vin A", 2001));
+        bouteilleRepository.save(new Bouteille("Vin B", 2002));
+
+        // Act : le Stream doit être fermé pour libérer le curseur
+        List<String> noms;
+        try (Stream<BouteilleResume> resumes = bouteilleRepository.streamAllBy()) {
+            noms = resumes.map(BouteilleResume::getNom).sorted().toList();
+        }
+
+        // Assert
+        assertEquals(List.of("Vin A", "Vin B"), noms);
     }
 
-    // NOTE : Pour un test plus strict, nous aurions besoin d'une projection basée sur une classe
-    // (Class-based projection) et non une interface pour vérifier explicitement la valeur null
-    // des champs non projetés (comme getAvis() sur l'objet BouteilleResume casté).
+    // --- IX. Tests d'Instrumentation ---
+
+    @Test
+    @DisplayName("IX.A. Instrumentation : commandes MongoDB et appels de Repository mesurés")
+    void testInstrumentation() {
+        // Arrange
+        bouteilleRepository.deleteAll();
+        bouteilleRepository.save(new Bouteille("Vin Mesuré", 2010));
+
+        // Act
+        bouteilleRepository.findAllBy();
+
+        // Assert : latence et documents retournés par le CommandListener, timer d'invocation de Spring Data
+        Timer commandes = meterRegistry.find("cavavin.mongo.commandes")
+                .tags("commande", "find", "collection", "bouteilles", "statut", "succes").timer();
+        assertNotNull(commandes, "Le find sur 'bouteilles' doit être chronométré.");
+        assertTrue(commandes.count() > 0);
+        DistributionSummary documents = meterRegistry.find("cavavin.mongo.commandes.documents")
+                .tags("commande", "find", "collection", "bouteilles").summary();
+        assertNotNull(documents);
+        assertTrue(documents.max() >= 1, "Le document retourné doit être compté.");
+        assertNotNull(meterRegistry.find("spring.data.repository.invocations")
+                .tags("repository", "BouteilleRepository", "method", "findAllBy").timer());
+    }
 
 }
\ No newline at end of file
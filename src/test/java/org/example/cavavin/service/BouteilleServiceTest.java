@@ -1,20 +1,58 @@
 package org.example.cavavin.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.example.cavavin.bo.Avis;
+import org.example.cavavin.bo.AvisResume;
 import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.BouteilleAvecRegion;
+import org.example.cavavin.bo.BouteilleDetail;
 import org.example.cavavin.bo.Region;
+import org.example.cavavin.bo.ResultatRecherche;
+import org.example.cavavin.controller.cache.ResumeCache;
+import org.example.cavavin.controller.dto.AvisImportDTO;
+import org.example.cavavin.controller.dto.AvisImportResultatDTO;
+import org.example.cavavin.controller.dto.BouteilleModificationDTO;
+import org.example.cavavin.controller.dto.GroupeStatistiqueDTO;
+import org.example.cavavin.controller.dto.PageCurseurDTO;
+import org.example.cavavin.controller.dto.StatistiquesDTO;
+import org.example.cavavin.controller.dto.SuppressionMasseDTO;
+import org.example.cavavin.controller.dto.SuppressionMasseResultatDTO;
 import org.example.cavavin.dal.AvisRepository;
 import org.example.cavavin.dal.BouteilleRepository;
 import org.example.cavavin.dal.RegionRepository;
+import org.example.cavavin.service.exception.EcritureAvisExpireeException;
+import org.example.cavavin.service.exception.FileAvisPleineException;
 import org.example.cavavin.service.exception.ResourceNotFoundException;
+import org.example.cavavin.service.exception.VersionObsoleteException;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,6 +70,18 @@ public class BouteilleServiceTest {
     private AvisRepository avisRepository;
     @Autowired
     private RegionRepository regionRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ResumeCache resumeCache;
+    @Autowired
+    private BalayageAvisOrphelins balayageAvisOrphelins;
+    @Autowired
+    private StatistiquesService statistiquesService;
+    @Autowired
+    private SuggestionsNoms suggestionsNoms;
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
     private Bouteille testBouteille;
     private Region testRegion;
@@ -75,6 +125,97 @@ public class BouteilleServiceTest {
         assertEquals(1, bouteilleApres.getAvis().size());
     }
 
+    @Test
+    @DisplayName("A bis. Ajouts d'Avis concurrents : aucune mise à jour perdue sur la même bouteille")
+    void testAjouterAvis_concurrents() throws Exception {
+        // Arrange
+        int nbAvis = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act : 20 avis soumis en parallèle sur la même bouteille
+        List<Future<Avis>> resultats = new ArrayList<>();
+        for (int i = 0; i < nbAvis; i++) {
+            String commentaire = "Avis concurrent " + i;
+            resultats.add(executor.submit(() -> bouteilleService.ajouterAvis(testBouteille.getId(), commentaire)));
+        }
+        for (Future<Avis> resultat : resultats) {
+            resultat.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert : chaque $push est atomique, la liste contient tous les avis
+        Bouteille bouteilleApres = bouteilleRepository.findById(testBouteille.getId()).orElseThrow();
+        assertEquals(nbAvis, bouteilleApres.getAvis().size(), "Aucun avis ne doit être perdu.");
+        assertEquals(nbAvis, bouteilleApres.getNbAvis(), "Le compteur dénormalisé ne doit perdre aucun $inc.");
+        assertEquals(nbAvis, avisRepository.count());
+    }
+
+    @Test
+    @DisplayName("A quater. Champs dénormalisés : compteur et derniers avis bornés, dans l'ordre d'ajout")
+    void testAjouterAvis_champsDenormalises() {
+        // Act : plus d'avis que la taille du résumé
+        int nbAvis = Bouteille.NB_DERNIERS_AVIS + 2;
+        for (int i = 0; i < nbAvis; i++) {
+            bouteilleService.ajouterAvis(testBouteille.getId(), "Avis " + i);
+        }
+
+        // Assert : seuls les plus récents sont conservés ($slice négatif)
+        Bouteille bouteilleApres = bouteilleRepository.findById(testBouteille.getId()).orElseThrow();
+        assertEquals(nbAvis, bouteilleApres.getNbAvis());
+        assertEquals(Bouteille.NB_DERNIERS_AVIS, bouteilleApres.getDerniersAvis().size());
+        assertEquals("Avis 2", bouteilleApres.getDerniersAvis().get(0).getCommentaire());
+        assertEquals("Avis " + (nbAvis - 1), bouteilleApres.getDerniersAvis().get(Bouteille.NB_DERNIERS_AVIS - 1).getCommentaire());
+    }
+
+    @Test
+    @DisplayName("A ter. Ajout d'Avis en masse : résultat par avis et un $push groupé par bouteille")
+    void testAjouterAvisEnMasse() {
+        // Arrange : deux avis valides (dont un avec l'ID en majuscules) et un avis sur une bouteille inexistante
+        List<AvisImportDTO> imports = List.of(
+                new AvisImportDTO(testBouteille.getId(), "Nez de fruits blancs."),
+                new AvisImportDTO("ID_INEXISTANT", "Perdu."),
+                new AvisImportDTO(testBouteille.getId().toUpperCase(), "Belle longueur."));
+
+        // Act
+        List<AvisImportResultatDTO> resultats = bouteilleService.ajouterAvisEnMasse(imports);
+
+        // Assert
+        assertEquals(3, resultats.size());
+        assertEquals(AvisImportResultatDTO.Statut.CREE, resultats.get(0).getStatut());
+        assertEquals(AvisImportResultatDTO.Statut.BOUTEILLE_INTROUVABLE, resultats.get(1).getStatut());
+        assertEquals(AvisImportResultatDTO.Statut.CREE, resultats.get(2).getStatut());
+        assertNotNull(resultats.get(2).getAvisId());
+
+        Bouteille bouteilleApres = bouteilleRepository.findById(testBouteille.getId()).orElseThrow();
+        assertEquals(2, bouteilleApres.getAvis().size(), "Les deux avis valides doivent être référencés.");
+        assertEquals(2, bouteilleApres.getNbAvis());
+        assertEquals("Belle longueur.", bouteilleApres.getDerniersAvis().get(1).getCommentaire());
+        assertEquals(2, avisRepository.count());
+    }
+    @Test
+    @DisplayName("A quinquies. Insertion d'Avis en échec : l'ajout est retiré de la bouteille et des statistiques")
+    void testEcrireAvis_compensation() {
+        // Arrange : un avis déjà inséré, dont l'ID est réutilisé (clé dupliquée à l'insertion)
+        statistiquesService.reconstruire();
+        Avis existant = avisRepository.insert(BouteilleServiceImpl.nouvelAvis(testBouteille.getId(), "Déjà là."));
+        Avis doublon = BouteilleServiceImpl.nouvelAvis(testBouteille.getId(), "Doublon.");
+        doublon.setId(existant.getId());
+        Avis valide = BouteilleServiceImpl.nouvelAvis(testBouteille.getId(), "Valide.");
+
+        // Act
+        List<AvisImportResultatDTO> resultats = bouteilleService.ecrireAvis(List.of(doublon, valide));
+
+        // Assert : seul l'avis inséré reste compté et référencé par la bouteille
+        assertEquals(AvisImportResultatDTO.Statut.ERREUR, resultats.get(0).getStatut());
+        assertEquals(AvisImportResultatDTO.Statut.CREE, resultats.get(1).getStatut());
+        Bouteille bouteilleApres = bouteilleRepository.findById(testBouteille.getId()).orElseThrow();
+        assertEquals(1, bouteilleApres.getNbAvis());
+        assertEquals(List.of(valide.getId()), bouteilleApres.getAvis().stream().map(Avis::getId).toList());
+        assertEquals(List.of("Valide."), bouteilleApres.getDerniersAvis().stream().map(AvisResume::getCommentaire).toList());
+        assertEquals(List.of("Bourgogne=1/1"), groupes(statistiquesService.lire().getRegions()));
+    }
+
+
     @Test
     @Transactional // Nécessaire pour simuler le comportement transactionnel même en test d'échec
     @DisplayName("B. Ajout d'Avis Échec : Rollback en cas d'erreur de la bouteille parente")
@@ -139,4 +280,444 @@ public class BouteilleServiceTest {
         // S'assurer que les données initiales n'ont pas été affectées (au cas où)
         assertTrue(bouteilleRepository.findById(testBouteille.getId()).isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("D bis. Suppression en masse : par IDs, par filtre, et avis balayés en mode asynchrone")
+    void testSupprimerEnMasse() throws InterruptedException {
+        // Arrange : trois bouteilles avec un avis chacune, dont deux de Bourgogne et une d'Alsace
+        Region alsace = regionRepository.save(new Region("Alsace"));
+        Bouteille deuxieme = new Bouteille("Pommard", 2015);
+        deuxieme.setRegion(testRegion);
+        deuxieme = bouteilleRepository.save(deuxieme);
+        Bouteille alsacienne = new Bouteille("Riesling", 2020);
+        alsacienne.setRegion(alsace);
+        alsacienne = bouteilleRepository.save(alsacienne);
+        for (Bouteille bouteille : List.of(testBouteille, deuxieme, alsacienne)) {
+            bouteilleService.ajouterAvis(bouteille.getId(), "Avis de " + bouteille.getNom());
+        }
+
+        // Act & Assert 1 : ni IDs ni critère (tout supprimer) est refusé
+        assertThrows(IllegalArgumentException.class, () -> bouteilleService.supprimerEnMasse(new SuppressionMasseDTO()));
+
+        // Act & Assert 2 : par IDs, synchrone (un ID inconnu est ignoré)
+        SuppressionMasseDTO parIds = new SuppressionMasseDTO();
+        parIds.setIds(List.of(testBouteille.getId(), "ID_NON_EXISTANT"));
+        SuppressionMasseResultatDTO resultat = bouteilleService.supprimerEnMasse(parIds);
+        assertEquals(1, resultat.getBouteillesSupprimees());
+        assertEquals(1L, resultat.getAvisSupprimes());
+        assertEquals(2, avisRepository.count());
+
+        // Act & Assert 3 : par filtre (région), asynchrone : les avis sont supprimés par le balayage des orphelins
+        SuppressionMasseDTO parFiltre = new SuppressionMasseDTO();
+        parFiltre.setRegionId(testRegion.getId());
+        parFiltre.setAsynchrone(true);
+        resultat = bouteilleService.supprimerEnMasse(parFiltre);
+        assertEquals(1, resultat.getBouteillesSupprimees());
+        assertTrue(resultat.isBalayageProgramme());
+        balayageAvisOrphelins.balayer();
+        attendreNbAvis(1); // Seul l'avis de la bouteille d'Alsace doit rester
+        assertEquals(List.of(alsacienne.getId()), bouteilleRepository.findAll().stream().map(Bouteille::getId).toList());
+    }
+
+    @Test
+    @DisplayName("D ter. Balayage des orphelins : par IDs connus, ou par lots successifs de l'index 'bouteille'")
+    void testBalayageAvisOrphelins() throws InterruptedException {
+        // Arrange : cinq bouteilles avec deux avis chacune ; lots de deux entrées d'index
+        List<Bouteille> bouteilles = new ArrayList<>(List.of(testBouteille));
+        for (int i = 1; i < 5; i++) {
+            bouteilles.add(bouteilleRepository.save(new Bouteille("Cuvée " + i, 2010 + i)));
+        }
+        for (Bouteille bouteille : bouteilles) {
+            bouteilleService.ajouterAvis(bouteille.getId(), "Premier avis");
+            bouteilleService.ajouterAvis(bouteille.getId(), "Second avis");
+        }
+        BalayageAvisOrphelins balayage = new BalayageAvisOrphelins(avisRepository, new SimpleMeterRegistry(), 2);
+
+        // Act & Assert 1 : IDs connus, sans balayage de l'index
+        // (la demande programme aussi un balayage asynchrone : le balayage synchrone peut le trouver déjà fait)
+        bouteilleRepository.deleteById(bouteilles.get(0).getId());
+        balayage.demander(List.of(bouteilles.get(0).getId()));
+        balayage.balayer();
+        attendreNbAvis(8);
+
+        // Act & Assert 2 : IDs inconnus, balayage complet repris de lot en lot (une bouteille par lot de deux avis)
+        bouteilleRepository.deleteById(bouteilles.get(2).getId());
+        bouteilleRepository.deleteById(bouteilles.get(4).getId());
+        balayage.demander();
+        balayage.balayer();
+        attendreNbAvis(4);
+        assertEquals(0, balayage.balayer(), "Sans nouvelle demande, rien n'est balayé.");
+        assertEquals(List.of(bouteilles.get(1).getId(), bouteilles.get(3).getId()),
+                avisRepository.findAll().stream().map(avis -> avis.getBouteille().getId()).distinct().sorted().toList());
+    }
+
+    // Attend la fin d'un balayage asynchrone (5 secondes au plus)
+    private void attendreNbAvis(long attendu) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (avisRepository.count() != attendu && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(attendu, avisRepository.count());
+    }
+
+    // --- Test de l'Opération 3 bis : Pagination par curseur ---
+
+    @Test
+    @DisplayName("E. Pagination par curseur : parcours complet sans doublon ni oubli")
+    void testFindPageWithRegionEagerly_parcoursComplet() {
+        // Arrange : 3 bouteilles au total (dont celle du setup), avec la région de test
+        for (String nom : List.of("Meursault", "Pommard")) {
+            Bouteille bouteille = new Bouteille(nom, 2019);
+            bouteille.setRegion(testRegion);
+            bouteilleRepository.save(bouteille);
+        }
+
+        // Act
+        PageCurseurDTO<BouteilleAvecRegion> page1 = bouteilleService.findPageWithRegionEagerly(null, 2);
+        PageCurseurDTO<BouteilleAvecRegion> page2 = bouteilleService.findPageWithRegionEagerly(page1.getCurseurSuivant(), 2);
+
+        // Assert
+        assertEquals(2, page1.getContenu().size());
+        assertNotNull(page1.getCurseurSuivant(), "Une page suivante doit être annoncée.");
+        assertEquals(1, page2.getContenu().size());
+        assertNull(page2.getCurseurSuivant(), "La dernière page ne doit pas avoir de curseur suivant.");
+        assertNotEquals(page1.getContenu().get(1).getId(), page2.getContenu().get(0).getId());
+        assertEquals("Bourgogne", page2.getContenu().get(0).getRegion().getNomRegion(),
+                "La région doit être pré-chargée par le $lookup.");
+    }
+
+    @Test
+    @DisplayName("F. Pagination par curseur : un curseur invalide est rejeté")
+    void testFindPageWithRegionEagerly_curseurInvalide() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bouteilleService.findPageWithRegionEagerly("pas-un-curseur", 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> bouteilleService.findPageWithRegionEagerly(null, 0));
+    }
+
+    @Test
+    @DisplayName("G. Instrumentation : chaque opération du service est chronométrée")
+    void testOperationsChronometrees() {
+        // Act
+        bouteilleService.findDetailById(testBouteille.getId(), 10);
+
+        // Assert
+        assertNotNull(meterRegistry.find("cavavin.service.bouteilles").tag("method", "findDetailById").timer(),
+                "Le timer de l'opération doit être enregistré par @Timed.");
+    }
+
+    @Test
+    @DisplayName("H. Recherche plein texte : fusion exacte des classements par nom et par avis")
+    void testFusionnerClassements() {
+        // Arrange : B est trouvée par son nom et par ses avis, C seulement par ses avis
+        List<ResultatRecherche> parNom = List.of(resultat("A", 3.0, 0), resultat("B", 1.0, 0));
+        List<ResultatRecherche> parAvis = List.of(resultat("C", 2.5, 1), resultat("B", 2.0, 4));
+
+        // Act
+        List<ResultatRecherche> page1 = BouteilleServiceImpl.fusionnerClassements(parNom, parAvis, 0, 2);
+        List<ResultatRecherche> page2 = BouteilleServiceImpl.fusionnerClassements(parNom, parAvis, 2, 2);
+
+        // Assert : le meilleur des deux scores est retenu, sans doublon
+        assertEquals(List.of("A", "C"), page1.stream().map(ResultatRecherche::getId).toList());
+        assertEquals(1, page2.size());
+        assertEquals("B", page2.get(0).getId());
+        assertEquals(2.0, page2.get(0).getScore());
+        assertEquals(4, page2.get(0).getAvisCorrespondants());
+    }
+
+    @Test
+    @DisplayName("H bis. Recherche plein texte : une bouteille est trouvée par son nom ou par ses avis")
+    void testRechercher() {
+        // Arrange
+        bouteilleService.ajouterAvis(testBouteille.getId(), "Notes de noisette grillée.");
+        Bouteille autre = bouteilleRepository.save(new Bouteille("Meursault Noisette", 2019));
+
+        // Act : $text n'est pas pris en charge par tous les serveurs de test (mongo-java-server)
+        List<ResultatRecherche> resultats;
+        try {
+            resultats = bouteilleService.rechercher("noisette", 0, 10);
+        } catch (UncategorizedMongoDbException e) {
+            Assumptions.abort("Recherche $text non prise en charge par le serveur de test : " + e.getMessage());
+            return;
+        }
+
+        // Assert
+        assertEquals(2, resultats.size());
+        assertTrue(resultats.stream().anyMatch(r -> r.getId().equals(autre.getId())));
+        assertTrue(resultats.stream().anyMatch(r -> r.getId().equals(testBouteille.getId()) && r.getAvisCorrespondants() == 1));
+        assertThrows(IllegalArgumentException.class, () -> bouteilleService.rechercher(" ", 0, 10));
+    }
+
+    // --- Test de l'Opération 1 ter : Modification (verrouillage optimiste) ---
+
+    @Test
+    @DisplayName("I. Modification conditionnelle : une version obsolète est refusée sans écraser l'écriture concurrente")
+    void testModifier_verrouillageOptimiste() {
+        // Arrange : deux clients lisent la même version
+        long versionLue = testBouteille.getVersion();
+        BouteilleModificationDTO premiere = new BouteilleModificationDTO();
+        premiere.setMillesime(2019);
+        BouteilleModificationDTO seconde = new BouteilleModificationDTO();
+        seconde.setNom("Chassagne-Montrachet 1er Cru");
+
+        // Act : le premier modifie, le second arrive avec la version désormais obsolète
+        long nouvelleVersion = bouteilleService.modifier(testBouteille.getId(), versionLue, premiere);
+
+        // Assert
+        assertEquals(versionLue + 1, nouvelleVersion);
+        assertThrows(VersionObsoleteException.class,
+                () -> bouteilleService.modifier(testBouteille.getId(), versionLue, seconde));
+        Bouteille relue = bouteilleRepository.findById(testBouteille.getId()).orElseThrow();
+        assertEquals(2019, relue.getMillesime());
+        assertEquals("Chassagne-Montrachet", relue.getNom(), "La modification refusée ne doit pas être appliquée.");
+
+        // Un ajout d'avis incrémente aussi la version (l'ETag de la bouteille change) : au $push, puis une fois l'avis inséré,
+        // pour que la version lue entre les deux (bouteille sans l'avis) ne reste pas valide
+        Avis avis = bouteilleService.ajouterAvis(testBouteille.getId(), "Beurré.");
+        BouteilleDetail detail = bouteilleService.findDetailById(testBouteille.getId(), 20);
+        assertEquals(nouvelleVersion + 2, detail.getVersion());
+        assertTrue(detail.getAvis().stream().anyMatch(a -> a.getId().equals(avis.getId())));
+
+        // Sans version attendue, la modification est inconditionnelle ; un ID inconnu reste un 404
+        assertEquals(nouvelleVersion + 3, bouteilleService.modifier(testBouteille.getId(), null, seconde));
+        assertThrows(ResourceNotFoundException.class,
+                () -> bouteilleService.modifier("ID_NON_EXISTANT", 0L, seconde));
+    }
+
+    // --- Test du cache des résumés (invalidé par les écritures du service) ---
+
+    @Test
+    @DisplayName("J. Cache des résumés : servi sans requête jusqu'à l'écriture suivante du service")
+    void testResumeCache_invalidationParEcriture() throws IOException {
+        // Arrange : l'état initial a été écrit directement par le Repository (sans événement)
+        resumeCache.invalider();
+        double hitsAvant = meterRegistry.counter("cavavin.cache.resume.requetes", "resultat", "hit").count();
+
+        // Act
+        ResumeCache.Reponse premiere = resumeCache.obtenir().orElseThrow();
+        ResumeCache.Reponse seconde = resumeCache.obtenir().orElseThrow();
+        bouteilleService.ajouterAvis(testBouteille.getId(), "Minéral.");
+        ResumeCache.Reponse apresEcriture = resumeCache.obtenir().orElseThrow();
+
+        // Assert
+        assertSame(premiere.getGzip(), seconde.getGzip(), "La seconde lecture doit être servie par le cache.");
+        assertEquals(hitsAvant + 1, meterRegistry.counter("cavavin.cache.resume.requetes", "resultat", "hit").count());
+        assertNotEquals(premiere.getEtag(), apresEcriture.getEtag(), "L'ajout d'un avis doit invalider le cache.");
+        String json = new String(new GZIPInputStream(new ByteArrayInputStream(apresEcriture.getGzip())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[") && json.contains("\"nbAvis\":1") && json.contains("Minéral."));
+    }
+
+    // --- Test des statistiques incrémentales ---
+
+    @Test
+    @DisplayName("K. Statistiques : les incréments des écritures du service donnent le même résultat que la reconstruction")
+    void testStatistiques_incrementsCoherentsAvecReconstruction() {
+        // Arrange : l'état initial a été écrit directement par le Repository (sans incrément)
+        statistiquesService.reconstruire();
+        assertEquals(List.of("Bourgogne=1/0"), groupes(statistiquesService.lire().getRegions()));
+
+        // Act : avis, puis changement de millésime et de couleur
+        bouteilleService.ajouterAvis(testBouteille.getId(), "Beurré.");
+        bouteilleService.ajouterAvis(testBouteille.getId(), "Long en bouche.");
+        BouteilleModificationDTO modification = new BouteilleModificationDTO();
+        modification.setMillesime(2019);
+        modification.setCouleur("Blanc");
+        bouteilleService.modifier(testBouteille.getId(), null, modification);
+        StatistiquesDTO incrementales = statistiquesService.lire();
+
+        // Assert
+        assertEquals(List.of("Bourgogne=1/2"), groupes(incrementales.getRegions()));
+        assertEquals(List.of("Blanc=1/2"), groupes(incrementales.getCouleurs()));
+        assertEquals(List.of("2019=1/2"), groupes(incrementales.getMillesimes()), "L'ancien millésime ne doit plus apparaître.");
+        statistiquesService.reconstruire();
+        StatistiquesDTO reconstruites = statistiquesService.lire();
+        assertEquals(groupes(incrementales.getRegions()), groupes(reconstruites.getRegions()));
+        assertEquals(groupes(incrementales.getCouleurs()), groupes(reconstruites.getCouleurs()));
+        assertEquals(groupes(incrementales.getMillesimes()), groupes(reconstruites.getMillesimes()));
+
+        // La suppression en cascade retire la bouteille et ses avis de tous ses groupes
+        bouteilleService.supprimerBouteilleEtAvisAssocies(testBouteille.getId());
+        assertTrue(groupes(statistiquesService.lire().getRegions()).isEmpty());
+        assertTrue(groupes(statistiquesService.lire().getMillesimes()).isEmpty());
+    }
+
+    // --- Test de l'écriture différée des avis ---
+
+    @Test
+    @DisplayName("L. Écriture différée : avis écrits par lots, 404 transmis à la requête, refus quand la file est pleine")
+    void testFileAvisDifferee() throws Exception {
+        // Arrange : acquittement ECRITURE, lots de 5 avis au plus
+        FileAvisDifferee file = new FileAvisDifferee(bouteilleService, new SimpleMeterRegistry(), true,
+                FileAvisDifferee.Acquittement.ECRITURE, 100, 5, Duration.ofMillis(100), Duration.ofSeconds(30));
+        file.demarrer();
+        ExecutorService executor = Executors.newFixedThreadPool(12);
+
+        // Act : 12 requêtes concurrentes, dont une sur une bouteille inexistante
+        List<Future<Avis>> resultats = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            String commentaire = "Avis différé " + i;
+            resultats.add(executor.submit(() -> file.ajouter(testBouteille.getId(), commentaire)));
+        }
+        Future<Avis> introuvable = executor.submit(() -> file.ajouter(new ObjectId().toHexString(), "Sans bouteille"));
+        for (Future<Avis> resultat : resultats) {
+            assertNotNull(resultat.get(30, TimeUnit.SECONDS).getId());
+        }
+        ExecutionException erreur = assertThrows(ExecutionException.class, () -> introuvable.get(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        file.arreter();
+
+        // Assert
+        assertInstanceOf(ResourceNotFoundException.class, erreur.getCause());
+        Bouteille bouteilleApres = bouteilleRepository.findById(testBouteille.getId()).orElseThrow();
+        assertEquals(11, bouteilleApres.getNbAvis());
+        assertEquals(11, avisRepository.count());
+
+        // File de capacité 1 sans écrivain : le deuxième avis est refusé ; celui en attente est écrit à l'arrêt
+        FileAvisDifferee pleine = new FileAvisDifferee(bouteilleService, new SimpleMeterRegistry(), true,
+                FileAvisDifferee.Acquittement.MISE_EN_FILE, 1, 5, Duration.ofMillis(100), Duration.ofSeconds(30));
+        Avis enAttente = pleine.ajouter(testBouteille.getId(), "En attente");
+        assertThrows(FileAvisPleineException.class, () -> pleine.ajouter(testBouteille.getId(), "Refusé"));
+        pleine.demarrer();
+        pleine.arreter();
+        assertTrue(avisRepository.existsById(enAttente.getId()));
+    }
+
+    @Test
+    @DisplayName("L bis. Écriture différée : attente bornée (503), écrivain maintenu après une erreur, file vidée à l'arrêt")
+    void testFileAvisDifferee_defaillances() {
+        // Sans écrivain, l'acquittement ECRITURE n'attend pas au-delà du délai ; l'avis expiré est retiré de la file :
+        // un écrivain démarré ensuite ne l'écrit pas (un nouvel essai du client ne crée pas de doublon)
+        FileAvisDifferee sansEcrivain = new FileAvisDifferee(bouteilleService, new SimpleMeterRegistry(), true,
+                FileAvisDifferee.Acquittement.ECRITURE, 10, 5, Duration.ofMillis(10), Duration.ofMillis(100));
+        assertThrows(EcritureAvisExpireeException.class, () -> sansEcrivain.ajouter(testBouteille.getId(), "Sans réponse"));
+        sansEcrivain.demarrer();
+        sansEcrivain.arreter();
+        assertThrows(FileAvisPleineException.class, () -> sansEcrivain.ajouter(testBouteille.getId(), "Après l'arrêt"));
+        assertEquals(0, avisRepository.count());
+
+        // Une Error pendant l'écriture fait échouer le lot, sans arrêter l'écrivain
+        AtomicBoolean premiereEcriture = new AtomicBoolean(true);
+        BouteilleService defaillant = (BouteilleService) Proxy.newProxyInstance(BouteilleService.class.getClassLoader(),
+                new Class<?>[]{BouteilleService.class}, (proxy, methode, arguments) -> {
+                    if (methode.getName().equals("ecrireAvis") && premiereEcriture.getAndSet(false)) {
+                        throw new StackOverflowError("Erreur simulée");
+                    }
+                    try {
+                        return methode.invoke(bouteilleService, arguments);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        FileAvisDifferee file = new FileAvisDifferee(defaillant, new SimpleMeterRegistry(), true,
+                FileAvisDifferee.Acquittement.ECRITURE, 10, 1, Duration.ofMillis(10), Duration.ofSeconds(30));
+        file.demarrer();
+        assertThrows(IllegalStateException.class, () -> file.ajouter(testBouteille.getId(), "Lot en échec"));
+        Avis ecrit = file.ajouter(testBouteille.getId(), "Lot suivant");
+        file.arreter();
+        assertTrue(avisRepository.existsById(ecrit.getId()));
+    }
+
+    // --- Test de l'export du catalogue ---
+
+    @Test
+    @DisplayName("M. Export : chaque bouteille avec sa région et tous ses avis, depuis un seul curseur")
+    void testStreamExport() {
+        // Arrange : plus d'avis que les derniers avis dénormalisés, et une bouteille sans région ni avis
+        for (int i = 0; i < Bouteille.NB_DERNIERS_AVIS + 2; i++) {
+            bouteilleService.ajouterAvis(testBouteille.getId(), "Avis " + i);
+        }
+        Bouteille sansRegion = bouteilleRepository.save(new Bouteille("Sans région", 2020));
+
+        // Act
+        List<BouteilleDetail> export;
+        try (Stream<BouteilleDetail> flux = bouteilleService.streamExport()) {
+            export = flux.toList();
+        }
+
+        // Assert : par _id croissant, avis du plus ancien au plus récent
+        assertEquals(List.of(testBouteille.getId(), sansRegion.getId()), export.stream().map(BouteilleDetail::getId).toList());
+        BouteilleDetail exportee = export.get(0);
+        assertEquals("Bourgogne", exportee.getRegion().getNomRegion());
+        assertEquals(Bouteille.NB_DERNIERS_AVIS + 2, exportee.getAvis().size(), "Tous les avis doivent être exportés.");
+        assertEquals("Avis 0", exportee.getAvis().get(0).getCommentaire());
+        assertNull(export.get(1).getRegion());
+        assertTrue(export.get(1).getAvis().isEmpty());
+    }
+
+    // --- Test des suggestions de noms ---
+
+    @Test
+    @DisplayName("O. Migration : une bouteille antérieure aux champs dénormalisés reçoit son compteur et ses derniers avis")
+    void testMigrationChampsAvis() {
+        // Arrange : bouteille écrite avant 'nbAvis' et 'derniersAvis', avec plus d'avis que le résumé n'en garde
+        int nbAvis = Bouteille.NB_DERNIERS_AVIS + 2;
+        List<ObjectId> avisIds = new ArrayList<>();
+        for (int i = 0; i < nbAvis; i++) {
+            avisIds.add(new ObjectId(avisRepository.insert(BouteilleServiceImpl.nouvelAvis(testBouteille.getId(), "Avis " + i)).getId()));
+        }
+        ObjectId ancienneId = new ObjectId();
+        mongoTemplate.getCollection("bouteilles").insertOne(new Document("_id", ancienneId)
+                .append("nom", "Vieux Meursault").append("millesime", 2005).append("version", 0L).append("avis", avisIds));
+
+        // Act : deux exécutions, la seconde sans effet
+        long completees = bouteilleRepository.completerChampsAvis();
+        long recompletees = bouteilleRepository.completerChampsAvis();
+
+        // Assert
+        assertEquals(1, completees, "Seule la bouteille sans 'nbAvis' est migrée.");
+        assertEquals(0, recompletees, "La migration est idempotente.");
+        Bouteille migree = bouteilleRepository.findById(ancienneId.toHexString()).orElseThrow();
+        assertEquals(nbAvis, migree.getNbAvis());
+        assertEquals(Bouteille.NB_DERNIERS_AVIS, migree.getDerniersAvis().size());
+        assertEquals("Avis 2", migree.getDerniersAvis().get(0).getCommentaire());
+        assertEquals("Avis " + (nbAvis - 1), migree.getDerniersAvis().get(Bouteille.NB_DERNIERS_AVIS - 1).getCommentaire());
+        assertEquals(avisIds.get(nbAvis - 1).toHexString(), migree.getDerniersAvis().get(Bouteille.NB_DERNIERS_AVIS - 1).getId());
+
+        // Un ajout après la migration poursuit le compteur et le résumé
+        bouteilleService.ajouterAvis(ancienneId.toHexString(), "Après migration.");
+        Bouteille apres = bouteilleRepository.findById(ancienneId.toHexString()).orElseThrow();
+        assertEquals(nbAvis + 1, apres.getNbAvis());
+        assertEquals("Après migration.", apres.getDerniersAvis().get(Bouteille.NB_DERNIERS_AVIS - 1).getCommentaire());
+    }
+
+    @Test
+    @DisplayName("N. Suggestions : préfixe sans casse ni accents, table tenue à jour par la modification et la suppression")
+    void testSuggerer() {
+        // Arrange : la table est rechargée après l'état initial, écrit directement par le Repository
+        bouteilleRepository.save(new Bouteille("Château Margaux", 2015));
+        bouteilleRepository.save(new Bouteille("Chablis", 2021));
+        suggestionsNoms.recharger();
+
+        // Act & Assert
+        assertEquals(List.of("Chablis", "Chassagne-Montrachet", "Château Margaux"), bouteilleService.suggerer("CHA", 10));
+        assertEquals(List.of("Château Margaux"), bouteilleService.suggerer("chât", 10));
+        assertEquals(List.of("Château Margaux"), bouteilleService.suggerer("chat", 10));
+        assertEquals(List.of("Chablis", "Chassagne-Montrachet"), bouteilleService.suggerer("cha", 2));
+        assertThrows(IllegalArgumentException.class, () -> bouteilleService.suggerer(" ", 10));
+
+        BouteilleModificationDTO modification = new BouteilleModificationDTO();
+        modification.setNom("Puligny-Montrachet");
+        bouteilleService.modifier(testBouteille.getId(), null, modification);
+        assertEquals(List.of("Chablis", "Château Margaux"), bouteilleService.suggerer("cha", 10));
+        assertEquals(List.of("Puligny-Montrachet"), bouteilleService.suggerer("pul", 10));
+
+        bouteilleService.supprimerBouteilleEtAvisAssocies(testBouteille.getId());
+        assertTrue(bouteilleService.suggerer("pul", 10).isEmpty());
+
+        // Repli sur MongoDB (table non chargée) : même intervalle de préfixe sur l'index 'nom'
+        assertEquals(List.of("Chablis", "Château Margaux"), bouteilleRepository.suggererNoms("Ch", 10));
+    }
+
+    private static List<String> groupes(List<GroupeStatistiqueDTO> groupes) {
+        return groupes.stream().map(groupe -> groupe.getLibelle() + "=" + groupe.getBouteilles() + "/" + groupe.getAvis()).toList();
+    }
+
+    private static ResultatRecherche resultat(String id, double score, int avisCorrespondants) {
+        ResultatRecherche resultat = new ResultatRecherche();
+        resultat.setId(id);
+        resultat.setScore(score);
+        resultat.setAvisCorrespondants(avisCorrespondants);
+        return resultat;
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.cavavin.service;
+
+import org.example.cavavin.bo.Bouteille;
+import org.example.cavavin.bo.Region;
+import org.example.cavavin.controller.dto.ImportRapportDTO;
+import org.example.cavavin.dal.AvisRepository;
+import org.example.cavavin.dal.BouteilleRepository;
+import org.example.cavavin.dal.RegionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ImportServiceTest {
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private BouteilleRepository bouteilleRepository;
+    @Autowired
+    private AvisRepository avisRepository;
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @BeforeEach
+    void setup() {
+        bouteilleRepository.deleteAll();
+        avisRepository.deleteAll();
+        regionRepository.deleteAll();
+        regionRepository.save(new Region("Bordeaux"));
+    }
+
+    @Test
+    @DisplayName("A. Import CSV : régions résolues ou créées une fois, doublons et lignes invalides comptés")
+    void testImporterCsv() throws Exception {
+        // Arrange : un doublon de nom, une ligne invalide, une région à créer (utilisée deux fois)
+        String csv = """
+                nom;millesime;couleur;region
+                Pauillac;2010;Rouge;Bordeaux
+                "Riesling; Grand Cru";2018;Blanc;Alsace
+                Gewurztraminer;2019;Blanc;Alsace
+                Pauillac;2012;Rouge;Bordeaux
+                Sans millésime;;Rouge;Bordeaux
+                """;
+
+        // Act
+        ImportRapportDTO rapport = importService.importerBouteilles(flux(csv), ImportService.Format.CSV);
+
+        // Assert
+        assertEquals(5, rapport.getLignesLues());
+        assertEquals(3, rapport.getBouteillesInserees());
+        assertEquals(1, rapport.getDoublons(), "Le doublon sur l'index unique 'nom' doit être compté.");
+        assertEquals(1, rapport.getErreurs(), "La ligne sans millésime doit être rejetée.");
+        assertEquals(1, rapport.getRegionsCreees(), "La région Alsace ne doit être créée qu'une fois.");
+        assertEquals(2, regionRepository.count());
+
+        Bouteille riesling = bouteilleRepository.findAll().stream()
+                .filter(b -> b.getNom().equals("Riesling; Grand Cru"))
+                .findFirst().orElseThrow();
+        assertEquals("Alsace", riesling.getRegion().getNomRegion());
+    }
+
+    @Test
+    @DisplayName("B. Import NDJSON : un objet par ligne, une ligne mal formée n'interrompt pas l'import")
+    void testImporterNdjson() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"nom":"Sancerre","millesime":2021,"couleur":"Blanc","region":"Loire"}
+                {"nom":"Chinon",
+                {"nom":"Vouvray","millesime":2020,"region":"Loire"}
+                """;
+
+        // Act
+        ImportRapportDTO rapport = importService.importerBouteilles(flux(ndjson), ImportService.Format.NDJSON);
+
+        // Assert
+        assertEquals(2, rapport.getBouteillesInserees());
+        assertEquals(1, rapport.getErreurs());
+        assertEquals(1, rapport.getRegionsCreees());
+        assertEquals(2, bouteilleRepository.count());
+    }
+
+    private static InputStream flux(String contenu) {
+        return new ByteArrayInputStream(contenu.getBytes(StandardCharsets.UTF_8));
+    }
+}